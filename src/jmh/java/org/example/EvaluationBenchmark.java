@@ -0,0 +1,70 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Full and incremental evaluation (the former evaluateBoard) and the one-ply hint. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    @Param({PositionCorpus.OPENING, PositionCorpus.MIDGAME, PositionCorpus.NEAR_FULL})
+    public String position;
+
+    private GameState state;
+    private int[] empties;
+    private int next;
+    private final PatternEvaluator pattern = new PatternEvaluator();
+    private final HeuristicEvaluator heuristic = new HeuristicEvaluator();
+    private final GreedyStrategy greedy = new GreedyStrategy();
+
+    @Setup
+    public void setUp() {
+        state = PositionCorpus.position(position);
+        empties = PositionCorpus.empties(state);
+        pattern.reset(state);
+    }
+
+    @Benchmark
+    public int heuristicFull() {
+        return heuristic.evaluate(state, GameState.X);
+    }
+
+    @Benchmark
+    public int patternFull() {
+        pattern.reset(state);
+        return pattern.evaluate(state, GameState.X);
+    }
+
+    @Benchmark
+    public int patternIncremental() {
+        int cell = empties[next];
+        next = next + 1 == empties.length ? 0 : next + 1;
+        state.place(cell);
+        pattern.onPlace(state, cell);
+        int score = pattern.evaluate(state, GameState.X);
+        pattern.onUndo(state, cell);
+        state.undo();
+        return score;
+    }
+
+    @Benchmark
+    public int greedyHint() {
+        return greedy.chooseMove(state);
+    }
+}
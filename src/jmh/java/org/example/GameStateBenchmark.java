@@ -0,0 +1,76 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Move application and win detection (the former checkWin and countContinuous). */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateBenchmark {
+
+    @Param({PositionCorpus.OPENING, PositionCorpus.MIDGAME, PositionCorpus.NEAR_FULL})
+    public String position;
+
+    private GameState state;
+    private int[] empties;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        state = PositionCorpus.position(position);
+        empties = PositionCorpus.empties(state);
+    }
+
+    private int nextEmpty() {
+        int cell = empties[next];
+        next = next + 1 == empties.length ? 0 : next + 1;
+        return cell;
+    }
+
+    @Benchmark
+    public int placeAndUndo() {
+        state.place(nextEmpty());
+        return state.undo();
+    }
+
+    @Benchmark
+    public long checkWin() {
+        int cell = nextEmpty();
+        state.place(cell);
+        long line = state.winningLine(cell);
+        state.undo();
+        return line;
+    }
+
+    @Benchmark
+    public boolean wouldWin() {
+        return state.wouldWin(nextEmpty(), state.toMove());
+    }
+
+    @Benchmark
+    public int countContinuous() {
+        int cell = state.moveAt(next % state.moveCount());
+        next = next + 1 == empties.length ? 0 : next + 1;
+        return HeuristicEvaluator.evaluatePosition(state, state.row(cell), state.col(cell), state.get(cell));
+    }
+
+    @Benchmark
+    public long copy() {
+        return state.copy().hash();
+    }
+}
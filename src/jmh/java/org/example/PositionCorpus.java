@@ -0,0 +1,55 @@
+package org.example;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fixed benchmark positions, regenerated identically on every run from a
+ * seed: random play that never completes a line, stopped at a given fill.
+ */
+final class PositionCorpus {
+
+    static final String OPENING = "opening";
+    static final String MIDGAME = "midgame";
+    static final String NEAR_FULL = "nearFull";
+
+    private static final long SEED = 20240501L;
+
+    private PositionCorpus() {
+    }
+
+    static GameState position(String name) {
+        return position(name, GameState.DEFAULT_SIZE, GameState.DEFAULT_WIN_LENGTH);
+    }
+
+    static GameState position(String name, int size, int winLength) {
+        int cells = size * size;
+        int stones = switch (name) {
+            case OPENING -> 4;
+            case MIDGAME -> cells / 4;
+            case NEAR_FULL -> cells * 4 / 5;
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        };
+        SplittableRandom random = new SplittableRandom(SEED);
+        GameState state = new GameState(size, winLength);
+        int attempts = 0;
+        while (state.moveCount() < stones && attempts++ < cells * 100) {
+            int cell = random.nextInt(cells);
+            if (state.isEmpty(cell) && !state.wouldWin(cell, state.toMove())) {
+                state.place(cell);
+            }
+        }
+        return state;
+    }
+
+    /** Empty cells of {@code state} in board order. */
+    static int[] empties(GameState state) {
+        int[] empties = new int[state.cells() - state.moveCount()];
+        int n = 0;
+        for (int cell = 0; cell < state.cells(); cell++) {
+            if (state.isEmpty(cell)) {
+                empties[n++] = cell;
+            }
+        }
+        return empties;
+    }
+}
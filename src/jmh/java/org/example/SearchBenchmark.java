@@ -0,0 +1,51 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hint search at a fixed depth with no time limit, so each invocation does
+ * the same work; the table is cleared first to measure a cold suggestMove.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({PositionCorpus.OPENING, PositionCorpus.MIDGAME, PositionCorpus.NEAR_FULL})
+    public String position;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    private GameState state;
+    private TranspositionTable table;
+    private SearchEngine engine;
+
+    @Setup
+    public void setUp() {
+        state = PositionCorpus.position(position);
+        table = new TranspositionTable();
+        engine = new SearchEngine(new PatternEvaluator(), table);
+    }
+
+    @Benchmark
+    public int suggestMove() {
+        table.clear();
+        return engine.search(state, depth, TimeUnit.DAYS.toMillis(1)).bestMove;
+    }
+}
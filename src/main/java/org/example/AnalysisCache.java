@@ -0,0 +1,184 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of search results keyed by {@link CanonicalBoard},
+ * so a position and its rotations and mirrors share one entry. Keys are split
+ * over independently locked LRU stripes; moves are stored in the canonical
+ * frame and mapped back on lookup. One instance is shared JVM-wide.
+ */
+public final class AnalysisCache {
+
+    public static final int DEFAULT_ENTRIES = Integer.getInteger("gomoku.analysisCacheEntries", 1 << 16);
+    private static final int STRIPES = 16;
+
+    private static volatile AnalysisCache shared;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // 每段各自上鎖、各自依存取順序淘汰
+    private final class Stripe extends LinkedHashMap<Long, Long> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(64, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public AnalysisCache(int maxEntries) {
+        int perStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /** The cache shared by every game window in this JVM. */
+    public static AnalysisCache shared() {
+        AnalysisCache cache = shared;
+        if (cache == null) {
+            synchronized (AnalysisCache.class) {
+                cache = shared;
+                if (cache == null) {
+                    cache = new AnalysisCache(DEFAULT_ENTRIES);
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    static AnalysisCache sharedIfCreated() {
+        return shared;
+    }
+
+    /** The stored result for {@code position} with its move in this orientation, or null. */
+    public SearchResult get(GameState position) {
+        return get(position, 0);
+    }
+
+    /**
+     * Like {@link #get(GameState)}, but a result shallower than {@code minDepth}
+     * counts as a miss unless it is a proven win or loss, so the caller searches
+     * again and the deeper result replaces it.
+     */
+    public SearchResult get(GameState position, int minDepth) {
+        long start = System.nanoTime();
+        CanonicalBoard canonical = CanonicalBoard.of(position);
+        long key = key(canonical);
+        Stripe stripe = stripe(key);
+        Long value;
+        synchronized (stripe) {
+            value = stripe.get(key);
+        }
+        if (value == null || depth(value) < minDepth && Math.abs(score(value)) < SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        int move = move(value);
+        if (move >= 0) {
+            move = canonical.toOriginal(move);
+        }
+        return new SearchResult(move, score(value), depth(value), 0, System.nanoTime() - start);
+    }
+
+    /** Stores {@code result} unless a deeper result for the position is already kept. */
+    public void put(GameState position, SearchResult result) {
+        CanonicalBoard canonical = CanonicalBoard.of(position);
+        long key = key(canonical);
+        int move = result.bestMove < 0 ? -1 : canonical.toCanonical(result.bestMove);
+        long value = pack(move, result.score, result.depth);
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Long old = stripe.get(key);
+            if (old == null || depth(old) <= result.depth || result.isWin()) {
+                stripe.put(key, value);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public double hitRatio() {
+        long h = hits();
+        long total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("analysis cache: size=%d hits=%d misses=%d ratio=%.3f evictions=%d",
+                size(), hits(), misses(), hitRatio(), evictions());
+    }
+
+    // 不同棋盤大小的同一格編號代表不同位置，鍵值需混入棋盤規格
+    private static long key(CanonicalBoard canonical) {
+        long dims = (long) canonical.size() << 32 | canonical.winLength();
+        return canonical.zobrist() ^ dims * 0x9E3779B97F4A7C15L;
+    }
+
+    private Stripe stripe(long key) {
+        return stripes[(int) (key ^ key >>> 32) & (STRIPES - 1)];
+    }
+
+    // 分數在低 32 bit，棋步 + 1 與深度在高位
+    private static long pack(int move, int score, int depth) {
+        return (long) Math.min(depth, 0x7FF) << 53 | (long) (move + 1) << 32 | (score & 0xFFFFFFFFL);
+    }
+
+    private static int move(long value) {
+        return (int) (value >>> 32 & 0x1FFFFF) - 1;
+    }
+
+    private static int score(long value) {
+        return (int) value;
+    }
+
+    private static int depth(long value) {
+        return (int) (value >>> 53);
+    }
+}
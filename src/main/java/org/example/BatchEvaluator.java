@@ -0,0 +1,143 @@
+package org.example;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Scores a {@link PositionBatch} on all cores. Each worker keeps its own
+ * board and evaluator and walks whole sequences, placing one stone per
+ * position, so the loop allocates nothing. Scores are from X's point of view.
+ */
+public final class BatchEvaluator implements AutoCloseable {
+
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+    private final ThreadLocal<Scratch> scratch;
+
+    // 每個工作執行緒的棋盤與評估器，換棋盤大小時才重建
+    private static final class Scratch {
+        final Evaluator evaluator;
+        GameState state;
+
+        Scratch(Evaluator evaluator) {
+            this.evaluator = evaluator;
+        }
+    }
+
+    public BatchEvaluator() {
+        this(Runtime.getRuntime().availableProcessors(), PatternEvaluator::new);
+    }
+
+    public BatchEvaluator(int threads, Supplier<Evaluator> evaluators) {
+        this.threads = Math.max(1, threads);
+        this.pool = new ForkJoinPool(this.threads);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(evaluators.get()));
+    }
+
+    public int[] evaluate(PositionBatch batch) {
+        int[] scores = new int[batch.positions()];
+        evaluate(batch, scores);
+        return scores;
+    }
+
+    /** Writes the score of position {@code i} to {@code scores[i]}. */
+    public void evaluate(PositionBatch batch, int[] scores) {
+        if (scores.length < batch.positions()) {
+            throw new IllegalArgumentException("Need room for " + batch.positions() + " scores");
+        }
+        // 依位置數把序列切成大致等量的區段
+        int sequences = batch.sequences();
+        int target = Math.max(1, batch.positions() / (threads * CHUNKS_PER_THREAD));
+        int[] bounds = new int[sequences + 1];
+        int[] offsets = new int[sequences + 1];
+        int chunks = 0;
+        int inChunk = 0;
+        for (int s = 0; s < sequences; s++) {
+            int count = batch.length(s) - batch.firstPly(s) + 1;
+            offsets[s + 1] = offsets[s] + count;
+            inChunk += count;
+            if (inChunk >= target || s == sequences - 1) {
+                bounds[++chunks] = s + 1;
+                inChunk = 0;
+            }
+        }
+        int chunkCount = chunks;
+        pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(
+                chunk -> evaluateRange(batch, bounds[chunk], bounds[chunk + 1], offsets, scores))).join();
+    }
+
+    private void evaluateRange(PositionBatch batch, int from, int to, int[] offsets, int[] scores) {
+        Scratch local = scratch.get();
+        GameState state = local.state;
+        if (state == null || state.size() != batch.boardSize() || state.winLength() != batch.winLength()) {
+            state = new GameState(batch.boardSize(), batch.winLength());
+            local.state = state;
+        }
+        Evaluator evaluator = local.evaluator;
+        for (int s = from; s < to; s++) {
+            state.clear();
+            evaluator.reset(state);
+            int start = batch.start(s);
+            int first = batch.firstPly(s);
+            int out = offsets[s];
+            if (first == 0) {
+                scores[out++] = evaluator.evaluate(state, GameState.X);
+            }
+            for (int ply = 0; ply < batch.length(s); ply++) {
+                int stone = batch.stone(start + ply);
+                int cell = stone >>> 1;
+                state.place(cell, (stone & 1) == 0 ? GameState.X : GameState.O);
+                evaluator.onPlace(state, cell);
+                if (ply + 1 >= first) {
+                    scores[out++] = evaluator.evaluate(state, GameState.X);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 例：java org.example.BatchEvaluator 20000 15
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : GameState.DEFAULT_SIZE;
+        PositionBatch batch = new PositionBatch(size, GameState.DEFAULT_WIN_LENGTH);
+        SplittableRandom random = new SplittableRandom(1);
+        GameState state = new GameState(size, GameState.DEFAULT_WIN_LENGTH);
+        for (int g = 0; g < games; g++) {
+            state.clear();
+            int plies = 10 + random.nextInt(state.cells() / 2);
+            for (int i = 0; i < plies; i++) {
+                int cell;
+                do {
+                    cell = random.nextInt(state.cells());
+                } while (!state.isEmpty(cell));
+                state.place(cell);
+            }
+            batch.addGame(state, 0);
+        }
+        try (BatchEvaluator evaluator = new BatchEvaluator()) {
+            int[] scores = new int[batch.positions()];
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                evaluator.evaluate(batch, scores);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%d positions in %.3fs, %.1fM positions/s%n",
+                        batch.positions(), seconds, batch.positions() / seconds / 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.example;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * The whole board as one component painted from a {@link GameState}. A move
+ * only repaints its own cell, painting only visits the cells inside the clip,
+ * and the X/O glyphs are rendered once per cell size and then blitted.
+ */
+public final class BoardView extends JComponent {
+
+    /** Receives clicks on a cell, occupied or not. */
+    public interface Listener {
+        void cellClicked(int row, int col);
+    }
+
+    private static final Color BACKGROUND = new Color(0xEE, 0xEE, 0xEE);
+    private static final Color GRID = new Color(0x99, 0x99, 0x99);
+    private static final Color HINT = Color.RED;
+    private static final Color STONE = Color.BLACK;
+    private static final Color WINNING = Color.RED;
+
+    private final GameState state;
+    private final Listener listener;
+    private int hintCell = -1;
+    private long winningLine = WinLine.NONE;
+    // 版面快取：元件大小改變時才重算
+    private int cellSize;
+    private int originX;
+    private int originY;
+    private final BufferedImage[][] glyphs = new BufferedImage[3][2]; // [棋子][是否為勝利連線]
+    private int glyphSize;
+
+    public BoardView(GameState state, Listener listener) {
+        this.state = state;
+        this.listener = listener;
+        setOpaque(true);
+        int preferred = Math.max(20, 720 / state.size()) * state.size();
+        setPreferredSize(new Dimension(preferred, preferred));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e) || !isEnabled()) {
+                    return;
+                }
+                int cell = cellAt(e.getX(), e.getY());
+                if (cell >= 0) {
+                    listener.cellClicked(state.row(cell), state.col(cell));
+                }
+            }
+        });
+    }
+
+    /** Same as a mouse click on the cell. */
+    public void doClick(int row, int col) {
+        listener.cellClicked(row, col);
+    }
+
+    /** "X", "O" or "" for the cell, as the old buttons showed. */
+    public String getText(int row, int col) {
+        int stone = state.get(row, col);
+        return stone == GameState.EMPTY ? "" : Character.toString(GomokuGame.symbolOf(stone));
+    }
+
+    /** Call after a stone was placed on or removed from {@code cell}. */
+    public void cellChanged(int cell) {
+        repaintCell(cell);
+    }
+
+    /** Marks {@code cell} as the hint; -1 clears it. */
+    public void setHint(int cell) {
+        if (cell == hintCell) {
+            return;
+        }
+        repaintCell(hintCell);
+        hintCell = cell;
+        repaintCell(cell);
+    }
+
+    public int hintCell() {
+        return hintCell;
+    }
+
+    /** Draws the stones of a packed {@link WinLine} in the highlight colour. */
+    public void setWinningLine(long line) {
+        repaintLine(winningLine);
+        winningLine = line;
+        repaintLine(line);
+    }
+
+    public long winningLine() {
+        return winningLine;
+    }
+
+    /** Drops the hint and highlight and repaints everything, e.g. after a reset or load. */
+    public void refresh() {
+        hintCell = -1;
+        winningLine = WinLine.NONE;
+        repaint();
+    }
+
+    /** The cell under the point, or -1 outside the grid. */
+    public int cellAt(int x, int y) {
+        layoutCells();
+        if (cellSize == 0 || x < originX || y < originY) {
+            return -1;
+        }
+        int col = (x - originX) / cellSize;
+        int row = (y - originY) / cellSize;
+        return row < state.size() && col < state.size() ? state.cell(row, col) : -1;
+    }
+
+    /** Bounds of {@code cell} in component coordinates. */
+    public Rectangle cellBounds(int cell) {
+        layoutCells();
+        return new Rectangle(originX + state.col(cell) * cellSize, originY + state.row(cell) * cellSize,
+                cellSize, cellSize);
+    }
+
+    private void repaintCell(int cell) {
+        if (cell >= 0) {
+            layoutCells();
+            repaint(originX + state.col(cell) * cellSize, originY + state.row(cell) * cellSize, cellSize, cellSize);
+        }
+    }
+
+    private void repaintLine(long line) {
+        if (line != WinLine.NONE) {
+            for (int i = 0; i < WinLine.length(line); i++) {
+                repaintCell(WinLine.cellAt(state, line, i));
+            }
+        }
+    }
+
+    private void layoutCells() {
+        int size = state.size();
+        cellSize = Math.min(getWidth(), getHeight()) / size;
+        originX = (getWidth() - cellSize * size) / 2;
+        originY = (getHeight() - cellSize * size) / 2;
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        layoutCells();
+        Graphics2D g = (Graphics2D) graphics;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getParent() != null ? getParent().getBackground() : BACKGROUND);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (cellSize == 0) {
+            return;
+        }
+        int size = state.size();
+        // 只畫與重繪區域相交的格子，每步的成本與棋盤大小無關
+        int firstCol = Math.max(0, (clip.x - originX) / cellSize);
+        int lastCol = Math.min(size - 1, (clip.x + clip.width - 1 - originX) / cellSize);
+        int firstRow = Math.max(0, (clip.y - originY) / cellSize);
+        int lastRow = Math.min(size - 1, (clip.y + clip.height - 1 - originY) / cellSize);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                paintCell(g, state.cell(row, col));
+            }
+        }
+    }
+
+    private void paintCell(Graphics2D g, int cell) {
+        int x = originX + state.col(cell) * cellSize;
+        int y = originY + state.row(cell) * cellSize;
+        g.setColor(cell == hintCell ? HINT : BACKGROUND);
+        g.fillRect(x, y, cellSize, cellSize);
+        g.setColor(GRID);
+        g.drawRect(x, y, cellSize - 1, cellSize - 1);
+        int stone = state.get(cell);
+        if (stone != GameState.EMPTY) {
+            g.drawImage(glyph(stone, onWinningLine(cell)), x, y, null);
+        }
+    }
+
+    private boolean onWinningLine(int cell) {
+        if (winningLine == WinLine.NONE) {
+            return false;
+        }
+        for (int i = 0; i < WinLine.length(winningLine); i++) {
+            if (WinLine.cellAt(state, winningLine, i) == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 字形依格子大小產生一次，之後直接貼圖
+    private BufferedImage glyph(int stone, boolean winning) {
+        if (glyphSize != cellSize) {
+            for (BufferedImage[] images : glyphs) {
+                images[0] = null;
+                images[1] = null;
+            }
+            glyphSize = cellSize;
+        }
+        int index = winning ? 1 : 0;
+        BufferedImage image = glyphs[stone][index];
+        if (image == null) {
+            image = new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(new Font("Arial", Font.PLAIN, Math.max(10, cellSize / 2)));
+            g.setColor(winning ? WINNING : STONE);
+            String text = Character.toString(GomokuGame.symbolOf(stone));
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(text, (cellSize - metrics.stringWidth(text)) / 2,
+                    (cellSize - metrics.getHeight()) / 2 + metrics.getAscent());
+            g.dispose();
+            glyphs[stone][index] = image;
+        }
+        return image;
+    }
+}
@@ -0,0 +1,248 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Empty cells within {@code radius} of any stone, maintained incrementally:
+ * each cell counts the stones around it, and the members sit in a dense
+ * array with a position index, so place, undo and membership are O(radius²).
+ * Threat types per cell are cached and only recomputed on changed lines.
+ */
+public final class CandidateSet {
+
+    public static final int DEFAULT_RADIUS = 2;
+
+    private final int radius;
+    private int size;
+    private int[] around; // 每格周圍 radius 內的棋子數
+    private int[] members; // 候選格，緊密排列
+    private int[] position; // 格子在 members 中的位置，-1 表示不在集合內
+    private int count;
+    private byte[] patterns; // 連線長度不支援型態表時為 null
+    private int winLength;
+    private byte[] threats; // 每格雙方的威脅型態，X 在低 4 bit、O 在高 4 bit
+    private int[] fresh; // 等於 epoch 時該格威脅快取有效，reset 只需遞增 epoch
+    private int epoch = 1;
+    private int[] stones = new int[64]; // 目前計入的棋子，reset 時只清它們周圍
+    private int stoneCount;
+
+    public CandidateSet() {
+        this(DEFAULT_RADIUS);
+    }
+
+    public CandidateSet(int radius) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("Radius must be positive: " + radius);
+        }
+        this.radius = radius;
+    }
+
+    /** Rebuilds the set for {@code state}; the cost follows the stones of the old and new positions. */
+    public void reset(GameState state) {
+        int cells = state.cells();
+        if (around == null || around.length != cells) {
+            around = new int[cells];
+            members = new int[Math.min(cells, 256)];
+            position = new int[cells];
+            threats = new byte[cells];
+            fresh = new int[cells];
+            Arrays.fill(position, -1);
+        } else {
+            clear();
+        }
+        if (++epoch == 0) {
+            Arrays.fill(fresh, 0); // 繞回時才整個清一次
+            epoch = 1;
+        }
+        size = state.size();
+        winLength = state.winLength();
+        patterns = PatternEvaluator.supports(winLength) ? PatternEvaluator.patterns(winLength) : null;
+        count = 0;
+        stoneCount = 0;
+        for (int i = 0; i < state.moveCount(); i++) {
+            push(state.moveAt(i));
+            adjust(state, state.moveAt(i), 1);
+        }
+    }
+
+    // 只有舊棋子周圍的計數與候選格會是非零，和 GameState.clear() 一樣只清這些
+    private void clear() {
+        for (int i = 0; i < count; i++) {
+            position[members[i]] = -1;
+        }
+        for (int i = 0; i < stoneCount; i++) {
+            int row = stones[i] / size;
+            int col = stones[i] % size;
+            int from = Math.max(0, col - radius);
+            int to = Math.min(size - 1, col + radius) + 1;
+            for (int r = Math.max(0, row - radius); r <= Math.min(size - 1, row + radius); r++) {
+                Arrays.fill(around, r * size + from, r * size + to, 0);
+            }
+        }
+    }
+
+    private void push(int cell) {
+        if (stoneCount == stones.length) {
+            stones = Arrays.copyOf(stones, stoneCount * 2);
+        }
+        stones[stoneCount++] = cell;
+    }
+
+    // 通常是最後一顆，從尾端找起
+    private void pop(int cell) {
+        for (int i = stoneCount - 1; i >= 0; i--) {
+            if (stones[i] == cell) {
+                stones[i] = stones[--stoneCount];
+                return;
+            }
+        }
+    }
+
+    /** Call after a stone has been placed on {@code cell}. */
+    public void onPlace(GameState state, int cell) {
+        remove(cell);
+        push(cell);
+        adjust(state, cell, 1);
+        invalidate(cell);
+    }
+
+    /** Call after the stone on {@code cell} has been taken back. */
+    public void onUndo(GameState state, int cell) {
+        pop(cell);
+        adjust(state, cell, -1);
+        if (around[cell] > 0) {
+            add(cell);
+        }
+        invalidate(cell);
+    }
+
+    /**
+     * Cached {@link PatternEvaluator#threat} of {@code player} on the empty
+     * {@code cell}; {@link PatternEvaluator#NONE} for unsupported win lengths.
+     */
+    public int threat(GameState state, int cell, int player) {
+        if (patterns == null) {
+            return PatternEvaluator.NONE;
+        }
+        if (fresh[cell] != epoch) {
+            threats[cell] = (byte) PatternEvaluator.threats(patterns, state, cell);
+            fresh[cell] = epoch;
+        }
+        int both = threats[cell] & 0xFF;
+        return player == GameState.X ? both & 0xF : both >>> 4;
+    }
+
+    /** True if threat types are available for this board's win length. */
+    public boolean hasThreats() {
+        return patterns != null;
+    }
+
+    // 落子只影響四條線上 winLength 格以內的型態
+    private void invalidate(int cell) {
+        if (patterns == null) {
+            return;
+        }
+        int row = cell / size;
+        int col = cell % size;
+        for (int dir = 0; dir < 4; dir++) {
+            for (int i = -winLength; i <= winLength; i++) {
+                int r = row + i * GameState.DR[dir];
+                int c = col + i * GameState.DC[dir];
+                if (r >= 0 && r < size && c >= 0 && c < size) {
+                    fresh[r * size + c] = 0;
+                }
+            }
+        }
+    }
+
+    private void adjust(GameState state, int cell, int delta) {
+        int row = cell / size;
+        int col = cell % size;
+        for (int r = Math.max(0, row - radius); r <= Math.min(size - 1, row + radius); r++) {
+            for (int c = Math.max(0, col - radius); c <= Math.min(size - 1, col + radius); c++) {
+                int near = r * size + c;
+                around[near] += delta;
+                if (near == cell || !state.isEmpty(near)) {
+                    continue;
+                }
+                if (around[near] == 0) {
+                    remove(near);
+                } else if (delta > 0 && around[near] == 1) {
+                    add(near);
+                }
+            }
+        }
+    }
+
+    private void add(int cell) {
+        if (position[cell] >= 0) {
+            return;
+        }
+        if (count == members.length) {
+            members = Arrays.copyOf(members, count * 2);
+        }
+        position[cell] = count;
+        members[count++] = cell;
+    }
+
+    private void remove(int cell) {
+        int at = position[cell];
+        if (at < 0) {
+            return;
+        }
+        int last = members[--count]; // 用最後一格補洞
+        members[at] = last;
+        position[last] = at;
+        position[cell] = -1;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** The {@code i}-th member; order changes as cells come and go. */
+    public int get(int i) {
+        return members[i];
+    }
+
+    /** Stones within the radius of {@code cell}. */
+    public int stonesAround(int cell) {
+        return around[cell];
+    }
+
+    public boolean contains(int cell) {
+        return position[cell] >= 0;
+    }
+
+    /** Copies the members into {@code out}, which must hold {@link #size()} cells. */
+    public int copyTo(int[] out) {
+        System.arraycopy(members, 0, out, 0, count);
+        return count;
+    }
+
+    /** Iterates a snapshot-free view; do not modify the set while iterating. */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                return members[next++];
+            }
+        };
+    }
+}
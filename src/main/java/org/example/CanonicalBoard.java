@@ -0,0 +1,172 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A position in its canonical orientation: of the eight symmetric copies,
+ * the one whose bitboards compare smallest. Equal for symmetric positions
+ * and exact (no hash collisions), with the transform kept so moves can be
+ * mapped between the caller's board and the canonical one.
+ */
+public final class CanonicalBoard {
+
+    private final int size;
+    private final int winLength;
+    private final int toMove;
+    private final int transform;
+    private final long[] x; // 標準方向的位元盤
+    private final long[] o;
+    private final long zobrist;
+
+    private CanonicalBoard(int size, int winLength, int toMove, int transform, long[] x, long[] o, long zobrist) {
+        this.size = size;
+        this.winLength = winLength;
+        this.toMove = toMove;
+        this.transform = transform;
+        this.x = x;
+        this.o = o;
+        this.zobrist = zobrist;
+    }
+
+    public static CanonicalBoard of(GameState state) {
+        int words = (state.cells() + 63) >>> 6;
+        long[] bestX = new long[words];
+        long[] bestO = new long[words];
+        long[] x = new long[words];
+        long[] o = new long[words];
+        fill(state, Symmetry.IDENTITY, bestX, bestO);
+        int best = Symmetry.IDENTITY;
+        for (int t = 1; t < Symmetry.COUNT; t++) {
+            Arrays.fill(x, 0L);
+            Arrays.fill(o, 0L);
+            fill(state, t, x, o);
+            if (compare(x, o, bestX, bestO) < 0) {
+                long[] swap = bestX;
+                bestX = x;
+                x = swap;
+                swap = bestO;
+                bestO = o;
+                o = swap;
+                best = t;
+            }
+        }
+        return new CanonicalBoard(state.size(), state.winLength(), state.toMove(), best, bestX, bestO,
+                Symmetry.hash(state, best));
+    }
+
+    // 依對照表把每顆棋子搬到變換後的位置；大棋盤沒有快取的表，逐格計算
+    private static void fill(GameState state, int t, long[] x, long[] o) {
+        int[] map = Symmetry.map(t, state.size());
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            int target = Symmetry.apply(map, t, cell, state.size());
+            long[] bits = state.get(cell) == GameState.X ? x : o;
+            bits[target >>> 6] |= 1L << target;
+        }
+    }
+
+    private static int compare(long[] x, long[] o, long[] bestX, long[] bestO) {
+        for (int i = 0; i < x.length; i++) {
+            int c = Long.compareUnsigned(x[i], bestX[i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        for (int i = 0; i < o.length; i++) {
+            int c = Long.compareUnsigned(o[i], bestO[i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /** Transform taking the original board to this one. */
+    public int transform() {
+        return transform;
+    }
+
+    /** Zobrist key of the canonical orientation, side to move included. */
+    public long zobrist() {
+        return zobrist;
+    }
+
+    /** Maps a cell of the original board into the canonical one. */
+    public int toCanonical(int cell) {
+        return Symmetry.apply(Symmetry.map(transform, size), transform, cell, size);
+    }
+
+    /** Maps a canonical cell, e.g. a stored best move, back to the original board. */
+    public int toOriginal(int cell) {
+        int t = Symmetry.inverse(transform);
+        return Symmetry.apply(Symmetry.map(t, size), t, cell, size);
+    }
+
+    /** Stone on a canonical cell. */
+    public int get(int cell) {
+        long bit = 1L << cell;
+        return (x[cell >>> 6] & bit) != 0 ? GameState.X : (o[cell >>> 6] & bit) != 0 ? GameState.O : GameState.EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    public int toMove() {
+        return toMove;
+    }
+
+    /** Compact form: size, win length and side to move, then the X and O words. */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 16 * x.length);
+        buffer.putShort((short) size).put((byte) winLength).put((byte) toMove);
+        for (long word : x) {
+            buffer.putLong(word);
+        }
+        for (long word : o) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    /** Rebuilds the canonical position (without move order) from {@link #toBytes()}. */
+    public static GameState fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int size = buffer.getShort();
+        int winLength = buffer.get();
+        int toMove = buffer.get();
+        GameState state = new GameState(size, winLength);
+        int words = (state.cells() + 63) >>> 6;
+        for (int player : new int[]{GameState.X, GameState.O}) {
+            for (int w = 0; w < words; w++) {
+                long word = buffer.getLong();
+                while (word != 0) {
+                    state.place(w * 64 + Long.numberOfTrailingZeros(word), player);
+                    word &= word - 1;
+                }
+            }
+        }
+        state.setToMove(toMove);
+        return state;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof CanonicalBoard)) {
+            return false;
+        }
+        CanonicalBoard board = (CanonicalBoard) other;
+        return size == board.size && winLength == board.winLength && toMove == board.toMove
+                && Arrays.equals(x, board.x) && Arrays.equals(o, board.o);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobrist);
+    }
+}
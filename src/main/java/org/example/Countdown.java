@@ -0,0 +1,128 @@
+package org.example;
+
+/**
+ * Per-turn countdown on a {@link TurnClock}: one wheel timeout at a time,
+ * rescheduled every second. Listener callbacks run on the wheel thread.
+ */
+public final class Countdown {
+
+    /** Receives countdown events on the clock's thread. */
+    public interface Listener {
+        void onTick(int secondsLeft);
+
+        void onExpired();
+    }
+
+    private static final long SECOND_MILLIS = 1000;
+
+    private enum Phase { STOPPED, RUNNING, PAUSED, EXPIRED }
+
+    private final TurnClock clock;
+    private final int seconds;
+    private final Listener listener;
+    private Phase phase = Phase.STOPPED;
+    private int remaining;
+    private long untilTick = SECOND_MILLIS; // 暫停時保存到下一秒的剩餘毫秒
+    private TurnClock.Timeout next;
+    private int generation; // 每次重新排程加一，已被取代的 tick 據此忽略
+
+    Countdown(TurnClock clock, int seconds, Listener listener) {
+        this.clock = clock;
+        this.seconds = seconds;
+        this.listener = listener;
+        this.remaining = seconds;
+    }
+
+    /** Starts or restarts from the full turn length. */
+    public synchronized void start() {
+        remaining = seconds;
+        untilTick = SECOND_MILLIS;
+        phase = Phase.RUNNING;
+        schedule(SECOND_MILLIS);
+    }
+
+    /** Refills the turn; a paused countdown stays paused. */
+    public synchronized void reset() {
+        if (phase == Phase.PAUSED) {
+            remaining = seconds;
+            untilTick = SECOND_MILLIS;
+        } else {
+            start();
+        }
+    }
+
+    public synchronized void pause() {
+        if (phase != Phase.RUNNING) {
+            return;
+        }
+        untilTick = Math.max(0, next.remainingMillis());
+        cancelNext();
+        phase = Phase.PAUSED;
+    }
+
+    public synchronized void resume() {
+        if (phase != Phase.PAUSED) {
+            return;
+        }
+        phase = Phase.RUNNING;
+        schedule(untilTick);
+    }
+
+    public synchronized void cancel() {
+        cancelNext();
+        phase = Phase.STOPPED;
+    }
+
+    public synchronized int remainingSeconds() {
+        return remaining;
+    }
+
+    public synchronized boolean isRunning() {
+        return phase == Phase.RUNNING;
+    }
+
+    public synchronized boolean isPaused() {
+        return phase == Phase.PAUSED;
+    }
+
+    public synchronized boolean isExpired() {
+        return phase == Phase.EXPIRED;
+    }
+
+    private void schedule(long delayMillis) {
+        cancelNext();
+        int expected = ++generation;
+        next = clock.schedule(() -> tick(expected), delayMillis);
+    }
+
+    private void cancelNext() {
+        generation++;
+        if (next != null) {
+            next.cancel();
+            next = null;
+        }
+    }
+
+    private void tick(int expected) {
+        int left;
+        boolean expired;
+        synchronized (this) {
+            if (expected != generation || phase != Phase.RUNNING) {
+                return;
+            }
+            left = --remaining;
+            expired = left <= 0;
+            if (expired) {
+                next = null;
+                phase = Phase.EXPIRED;
+            } else {
+                long late = Math.max(0, -next.remainingMillis()); // 扣掉這次的延遲，避免誤差累積
+                schedule(Math.max(0, SECOND_MILLIS - late));
+            }
+        }
+        listener.onTick(left);
+        if (expired) {
+            listener.onExpired();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example;
+
+/**
+ * Static position score from {@code player}'s point of view; higher is better.
+ * Incremental evaluators track moves through the optional hooks.
+ */
+public interface Evaluator {
+
+    int evaluate(GameState state, int player);
+
+    /** Re-synchronises the evaluator with {@code state}. */
+    default void reset(GameState state) {
+    }
+
+    /** Called after a stone has been placed on {@code cell}. */
+    default void onPlace(GameState state, int cell) {
+    }
+
+    /** Called before the stone on {@code cell} is taken back. */
+    default void onUndo(GameState state, int cell) {
+    }
+}
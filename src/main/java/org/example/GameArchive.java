@@ -0,0 +1,298 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Append-only store of finished games in two memory-mapped files: records
+ * in {@code games.dat}, their offsets in {@code games.idx}. Both are mapped
+ * in fixed windows, so files can exceed 2 GB, and records are read in place.
+ * One instance is shared per directory in the JVM; appends from other
+ * processes are serialised by a lock on the index file.
+ */
+public final class GameArchive implements AutoCloseable {
+
+    public static final int DEFAULT_WINDOW_BYTES = 64 << 20;
+    private static final int INDEX_WINDOW_BYTES = 8 << 20;
+    private static final int MAGIC = 0x474D4B41; // "GMKA"
+
+    // 索引檔開頭：magic | 資料視窗大小 | 對局數 | 資料結尾位置
+    private static final int WINDOW_AT = 4;
+    private static final int COUNT_AT = 8;
+    private static final int END_AT = 16;
+    private static final int INDEX_HEADER = 24;
+
+    // 每筆紀錄：邊長 short | 連線長度 short | 旗標 byte | 步數 int | 棋步 [| 顏色位元圖]
+    static final int RECORD_HEADER = 9;
+    private static final int WINNER_MASK = 0x3;
+    private static final int HAS_COLORS = 0x4; // 有逾時換手、顏色不是 X/O 交替時才附位元圖
+
+    private static final Map<Path, GameArchive> OPEN = new HashMap<>(); // 同一目錄在 JVM 內共用一個實例
+
+    private final Path directory;
+    private int references; // 由 OPEN 保護
+    private final FileChannel data;
+    private final FileChannel index;
+    private final int windowBytes;
+    private final List<MappedByteBuffer> dataWindows = new ArrayList<>();
+    private final List<MappedByteBuffer> indexWindows = new ArrayList<>();
+    private long count;
+    private long end;
+
+    private GameArchive(Path directory, FileChannel data, FileChannel index, int windowBytes) throws IOException {
+        this.directory = directory;
+        this.data = data;
+        this.index = index;
+        FileLock lock = index.lock(); // 另一個行程可能同時在建立檔頭
+        try {
+            ByteBuffer header = indexWindow(0);
+            if (header.getInt(0) == MAGIC) {
+                this.windowBytes = header.getInt(WINDOW_AT); // 沿用建立時的視窗大小
+                this.count = header.getLong(COUNT_AT);
+                this.end = header.getLong(END_AT);
+            } else {
+                this.windowBytes = windowBytes;
+                header.putInt(WINDOW_AT, windowBytes);
+                header.putLong(COUNT_AT, 0);
+                header.putLong(END_AT, 0);
+                header.putInt(0, MAGIC);
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    public static GameArchive open(Path directory) throws IOException {
+        return open(directory, DEFAULT_WINDOW_BYTES);
+    }
+
+    /**
+     * Opens or creates an archive; {@code windowBytes} only applies to new ones.
+     * Opening a directory that is already open returns the same instance, and
+     * each open needs its own {@link #close()}.
+     */
+    public static GameArchive open(Path directory, int windowBytes) throws IOException {
+        if (windowBytes < RECORD_HEADER + 1) {
+            throw new IllegalArgumentException("Window too small: " + windowBytes);
+        }
+        Files.createDirectories(directory);
+        Path key = directory.toRealPath();
+        synchronized (OPEN) {
+            GameArchive archive = OPEN.get(key);
+            if (archive == null) {
+                FileChannel data = FileChannel.open(key.resolve("games.dat"),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileChannel index = FileChannel.open(key.resolve("games.idx"),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                try {
+                    archive = new GameArchive(key, data, index, windowBytes);
+                } catch (IOException | RuntimeException e) {
+                    data.close();
+                    index.close();
+                    throw e;
+                }
+                OPEN.put(key, archive);
+            }
+            archive.references++;
+            return archive;
+        }
+    }
+
+    /** Appends the moves of {@code state}; {@code winner} is X, O or EMPTY for a draw. */
+    public long append(GameState state, int winner) throws IOException {
+        MoveLog moves = new MoveLog(state.cells());
+        byte[] colors = new byte[(state.moveCount() + 7) >>> 3];
+        boolean alternating = true;
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            moves.add(cell);
+            if (state.get(cell) == GameState.O) {
+                colors[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+            alternating &= state.get(cell) == (i % 2 == 0 ? GameState.X : GameState.O);
+        }
+        return append(state.size(), state.winLength(), winner, moves, alternating ? null : colors);
+    }
+
+    /** Appends one game whose moves alternate from X and returns its index. */
+    public long append(int size, int winLength, int winner, MoveLog moves) throws IOException {
+        return append(size, winLength, winner, moves, null);
+    }
+
+    private synchronized long append(int size, int winLength, int winner, MoveLog moves, byte[] colors)
+            throws IOException {
+        if (moves.width() != MoveLog.bytesPerMove(size * size)) {
+            throw new IllegalArgumentException("Move log does not match board size " + size);
+        }
+        int length = RECORD_HEADER + moves.encodedLength() + (colors == null ? 0 : colors.length);
+        if (length > windowBytes) {
+            throw new IllegalArgumentException("Game too long for archive window: " + length + " bytes");
+        }
+        FileLock lock = index.lock(); // 其他行程也可能在附加
+        try {
+            ByteBuffer header = indexWindow(0);
+            count = header.getLong(COUNT_AT);
+            end = header.getLong(END_AT);
+            return write(size, winLength, winner, moves, colors, length, header);
+        } finally {
+            lock.release();
+        }
+    }
+
+    private long write(int size, int winLength, int winner, MoveLog moves, byte[] colors, int length,
+                       ByteBuffer header) throws IOException {
+        long offset = end;
+        if (offset % windowBytes + length > windowBytes) {
+            offset += windowBytes - offset % windowBytes; // 紀錄不跨視窗，剩餘空間不足就跳到下一個
+        }
+        ByteBuffer out = dataWindow((int) (offset / windowBytes)).duplicate();
+        out.position((int) (offset % windowBytes));
+        out.putShort((short) size);
+        out.putShort((short) winLength);
+        out.put((byte) (winner | (colors == null ? 0 : HAS_COLORS)));
+        out.putInt(moves.size());
+        moves.writeTo(out);
+        if (colors != null) {
+            out.put(colors);
+        }
+
+        long position = INDEX_HEADER + count * Long.BYTES;
+        indexWindow((int) (position / INDEX_WINDOW_BYTES)).putLong((int) (position % INDEX_WINDOW_BYTES), offset);
+        end = offset + length;
+        header.putLong(END_AT, end);
+        header.putLong(COUNT_AT, count + 1); // 最後才更新筆數，寫到一半的紀錄不會被讀到
+        return count++;
+    }
+
+    public synchronized long size() throws IOException {
+        count = indexWindow(0).getLong(COUNT_AT); // 包含其他行程附加的對局
+        return count;
+    }
+
+    /** Reads game {@code i} without copying its moves out of the mapping. */
+    public synchronized GameRecord get(long i) throws IOException {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("Game " + i + " of " + count);
+        }
+        long position = INDEX_HEADER + i * Long.BYTES;
+        long offset = indexWindow((int) (position / INDEX_WINDOW_BYTES)).getLong((int) (position % INDEX_WINDOW_BYTES));
+        ByteBuffer window = dataWindow((int) (offset / windowBytes));
+        int at = (int) (offset % windowBytes);
+        int size = window.getShort(at);
+        int winLength = window.getShort(at + 2);
+        int flags = window.get(at + 4);
+        int moveCount = window.getInt(at + 5);
+        int width = MoveLog.bytesPerMove(size * size);
+        int colorBytes = (flags & HAS_COLORS) != 0 ? (moveCount + 7) >>> 3 : 0;
+        ByteBuffer moves = window.slice(at + RECORD_HEADER, moveCount * width + colorBytes).asReadOnlyBuffer();
+        return new GameRecord(i, size, winLength, flags & WINNER_MASK, moveCount, moves, width, colorBytes > 0);
+    }
+
+    /** Visits games {@code from} .. size()-1 in order. */
+    public void forEach(long from, Consumer<GameRecord> action) throws IOException {
+        long total = size();
+        for (long i = Math.max(0, from); i < total; i++) {
+            action.accept(get(i));
+        }
+    }
+
+    /** Flushes mapped changes to the storage device. */
+    public synchronized void force() {
+        dataWindows.forEach(MappedByteBuffer::force);
+        indexWindows.forEach(MappedByteBuffer::force);
+    }
+
+    /** Releases this open; the files are closed when the last user closes. */
+    @Override
+    public void close() throws IOException {
+        synchronized (OPEN) {
+            if (references == 0 || --references > 0) {
+                return;
+            }
+            OPEN.remove(directory);
+        }
+        synchronized (this) {
+            force();
+            data.close();
+            index.close();
+        }
+    }
+
+    private MappedByteBuffer dataWindow(int window) throws IOException {
+        return map(data, dataWindows, window, windowBytes);
+    }
+
+    private MappedByteBuffer indexWindow(int window) throws IOException {
+        return map(index, indexWindows, window, INDEX_WINDOW_BYTES);
+    }
+
+    // 視窗依需要才映射，映射時檔案會自動延長（多數檔案系統上為稀疏檔）
+    private static MappedByteBuffer map(FileChannel channel, List<MappedByteBuffer> windows, int window,
+                                        int bytes) throws IOException {
+        while (windows.size() <= window) {
+            long start = (long) windows.size() * bytes;
+            windows.add(channel.map(FileChannel.MapMode.READ_WRITE, start, bytes));
+        }
+        return windows.get(window);
+    }
+
+    /** One archived game; moves are read straight from the mapped file. */
+    public static final class GameRecord {
+        public final long index;
+        public final int size;
+        public final int winLength;
+        public final int winner;
+        public final int moveCount;
+        private final ByteBuffer moves;
+        private final int width;
+        private final boolean hasColors;
+
+        GameRecord(long index, int size, int winLength, int winner, int moveCount, ByteBuffer moves, int width,
+                   boolean hasColors) {
+            this.index = index;
+            this.size = size;
+            this.winLength = winLength;
+            this.winner = winner;
+            this.moveCount = moveCount;
+            this.moves = moves;
+            this.width = width;
+            this.hasColors = hasColors;
+        }
+
+        public int move(int i) {
+            if (i < 0 || i >= moveCount) {
+                throw new IndexOutOfBoundsException("Move " + i + " of " + moveCount);
+            }
+            return MoveLog.decode(moves, i * width, width);
+        }
+
+        /** Player who made move {@code i}. */
+        public int player(int i) {
+            if (!hasColors) {
+                return i % 2 == 0 ? GameState.X : GameState.O;
+            }
+            int bits = moves.get(moveCount * width + (i >>> 3));
+            return (bits & (1 << (i & 7))) != 0 ? GameState.O : GameState.X;
+        }
+
+        /** Rebuilds the final position. */
+        public GameState replay() {
+            GameState state = new GameState(size, winLength);
+            for (int i = 0; i < moveCount; i++) {
+                state.place(move(i), player(i));
+            }
+            return state;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * JSON save files and archive exports written and read token by token with
+ * Jackson's streaming API, so memory use does not depend on the file size.
+ * Exports can start at any game index, and a truncated import keeps every
+ * complete game, so interrupted transfers can be resumed.
+ */
+public final class GameJson {
+
+    public static final int VERSION = 1;
+    // 串流由呼叫端負責關閉
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    private GameJson() {
+    }
+
+    // 棋步與顏色的讀取方式，讓 GameState 與封存紀錄共用寫出邏輯
+    private interface Moves {
+        int count();
+
+        int cell(int i);
+
+        int player(int i);
+    }
+
+    public static void writeMatch(SavedMatch match, OutputStream out) throws IOException {
+        try (JsonGenerator gen = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeNumberField("version", VERSION);
+            gen.writeNumberField("size", match.state.size());
+            gen.writeNumberField("winLength", match.state.winLength());
+            gen.writeNumberField("xWins", match.xWins);
+            gen.writeNumberField("oWins", match.oWins);
+            gen.writeNumberField("draws", match.draws);
+            gen.writeStringField("toMove", symbol(match.state.toMove()));
+            writeMoves(gen, movesOf(match.state));
+            gen.writeEndObject();
+        }
+    }
+
+    public static SavedMatch readMatch(InputStream in) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            GameFields fields = new GameFields();
+            int xWins = 0;
+            int oWins = 0;
+            int draws = 0;
+            int toMove = GameState.X;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "xWins" -> xWins = parser.getIntValue();
+                    case "oWins" -> oWins = parser.getIntValue();
+                    case "draws" -> draws = parser.getIntValue();
+                    case "toMove" -> toMove = stone(parser, parser.getText());
+                    default -> {
+                        if (!fields.read(parser, name, value)) {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+            expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+            GameState state = fields.build(parser, null);
+            state.setToMove(toMove);
+            return new SavedMatch(state, xWins, oWins, draws);
+        }
+    }
+
+    /** Streams games {@code from} .. end of {@code archive}; returns how many were written. */
+    public static long exportArchive(GameArchive archive, long from, OutputStream out) throws IOException {
+        long total = archive.size();
+        try (JsonGenerator gen = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeNumberField("version", VERSION);
+            gen.writeNumberField("from", from);
+            gen.writeArrayFieldStart("games");
+            for (long i = Math.max(0, from); i < total; i++) {
+                GameArchive.GameRecord game = archive.get(i);
+                gen.writeStartObject();
+                gen.writeNumberField("index", game.index);
+                gen.writeNumberField("size", game.size);
+                gen.writeNumberField("winLength", game.winLength);
+                gen.writeStringField("winner", symbol(game.winner));
+                writeMoves(gen, new Moves() {
+                    @Override
+                    public int count() {
+                        return game.moveCount;
+                    }
+
+                    @Override
+                    public int cell(int i) {
+                        return game.move(i);
+                    }
+
+                    @Override
+                    public int player(int i) {
+                        return game.player(i);
+                    }
+                });
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            return Math.max(0, total - Math.max(0, from));
+        }
+    }
+
+    /**
+     * Appends the exported games to {@code archive}, skipping the first
+     * {@code skip}. Returns the number of complete games seen; input cut off
+     * mid-game ends the import there instead of failing.
+     */
+    public static long importArchive(InputStream in, long skip, GameArchive archive) throws IOException {
+        long seen = 0;
+        EndTracker input = new EndTracker(in);
+        try (JsonParser parser = FACTORY.createParser(input)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"games".equals(name)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                expect(parser, value, JsonToken.START_ARRAY);
+                GameState scratch = null;
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    GameFields fields = new GameFields();
+                    int winner = GameState.EMPTY;
+                    JsonToken field;
+                    while ((field = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                        String key = parser.currentName();
+                        JsonToken fieldValue = parser.nextToken();
+                        if ("winner".equals(key)) {
+                            winner = player(parser, parser.getText());
+                        } else if (!fields.read(parser, key, fieldValue)) {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (field != JsonToken.END_OBJECT) {
+                        return seen; // 輸入在這局中途結束
+                    }
+                    if (seen++ >= skip) {
+                        scratch = fields.build(parser, scratch);
+                        archive.append(scratch, winner);
+                    }
+                }
+                if (token != JsonToken.END_ARRAY) {
+                    return seen;
+                }
+            }
+        } catch (JsonParseException e) {
+            if (input.ended && e.getLocation() != null && e.getLocation().getByteOffset() >= input.bytes) {
+                return seen; // 錯誤發生在輸入結尾就是截斷，不是格式錯誤
+            }
+            throw e;
+        }
+        return seen;
+    }
+
+    // 記錄讀了多少位元組、是否已到輸入結尾
+    private static final class EndTracker extends FilterInputStream {
+        boolean ended;
+        long bytes;
+
+        EndTracker(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            ended |= b < 0;
+            bytes += b < 0 ? 0 : 1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            ended |= n < 0;
+            bytes += Math.max(0, n);
+            return n;
+        }
+    }
+
+    private static void writeMoves(JsonGenerator gen, Moves moves) throws IOException {
+        gen.writeArrayFieldStart("moves");
+        boolean alternating = true;
+        for (int i = 0; i < moves.count(); i++) {
+            gen.writeNumber(moves.cell(i));
+            alternating &= moves.player(i) == (i % 2 == 0 ? GameState.X : GameState.O);
+        }
+        gen.writeEndArray();
+        if (!alternating) {
+            // 有逾時換手時才逐步記下顏色
+            StringBuilder players = new StringBuilder(moves.count());
+            for (int i = 0; i < moves.count(); i++) {
+                players.append(symbol(moves.player(i)));
+            }
+            gen.writeStringField("players", players.toString());
+        }
+    }
+
+    private static Moves movesOf(GameState state) {
+        return new Moves() {
+            @Override
+            public int count() {
+                return state.moveCount();
+            }
+
+            @Override
+            public int cell(int i) {
+                return state.moveAt(i);
+            }
+
+            @Override
+            public int player(int i) {
+                return state.get(state.moveAt(i));
+            }
+        };
+    }
+
+    // 一局的共同欄位；棋步先收進 MoveLog，讀完整個物件後才重建局面
+    private static final class GameFields {
+        int size = GameState.DEFAULT_SIZE;
+        int winLength = GameState.DEFAULT_WIN_LENGTH;
+        MoveLog moves = new MoveLog(GameState.MAX_SIZE * GameState.MAX_SIZE);
+        String players;
+
+        boolean read(JsonParser parser, String name, JsonToken value) throws IOException {
+            switch (name) {
+                case "size" -> size = parser.getIntValue();
+                case "winLength" -> winLength = parser.getIntValue();
+                case "players" -> players = parser.getText();
+                case "moves" -> {
+                    expect(parser, value, JsonToken.START_ARRAY);
+                    JsonToken token;
+                    while ((token = parser.nextToken()) == JsonToken.VALUE_NUMBER_INT) {
+                        moves.add(parser.getIntValue());
+                    }
+                    if (token != JsonToken.END_ARRAY) {
+                        throw new JsonEOFException(parser, token, "Unterminated moves array");
+                    }
+                }
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        GameState build(JsonParser parser, GameState reuse) throws IOException {
+            if (players != null && players.length() != moves.size()) {
+                throw new IOException("Invalid game: players has " + players.length()
+                        + " entries for " + moves.size() + " moves");
+            }
+            GameState state;
+            try {
+                state = reuse != null && reuse.size() == size && reuse.winLength() == winLength
+                        ? reuse : new GameState(size, winLength);
+                state.clear();
+                for (int i = 0; i < moves.size(); i++) {
+                    int cell = moves.get(i);
+                    if (cell < 0 || cell >= state.cells()) {
+                        throw new IllegalArgumentException("Cell off the board: " + cell);
+                    }
+                    int player = players == null
+                            ? (i % 2 == 0 ? GameState.X : GameState.O)
+                            : player(parser, String.valueOf(players.charAt(i)));
+                    if (player == GameState.EMPTY) {
+                        throw new IllegalArgumentException("Move " + i + " has no player");
+                    }
+                    state.place(cell, player);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid game: " + e.getMessage(), e); // 內容錯誤，不當作截斷
+            }
+            return state;
+        }
+    }
+
+    private static String symbol(int player) {
+        if (player == GameState.EMPTY) {
+            return "-";
+        }
+        return player == GameState.X ? "X" : "O";
+    }
+
+    private static int player(JsonParser parser, String symbol) throws JsonParseException {
+        return switch (symbol) {
+            case "X" -> GameState.X;
+            case "O" -> GameState.O;
+            case "-" -> GameState.EMPTY;
+            default -> throw new JsonParseException(parser, "Unknown player: " + symbol);
+        };
+    }
+
+    // 輪到誰只能是 X 或 O；"-" 會讓 setToMove 寫入空格並弄錯雜湊
+    private static int stone(JsonParser parser, String symbol) throws JsonParseException {
+        int player = player(parser, symbol);
+        if (player == GameState.EMPTY) {
+            throw new JsonParseException(parser, "Not a player to move: " + symbol);
+        }
+        return player;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual == null) {
+            throw new JsonEOFException(parser, null, "Unexpected end of input");
+        }
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Append-only record of a whole session: moves, undos, time-outs, round
+ * ends and score changes, one packed long per event. Every
+ * {@code snapshotInterval} events the current board and score are saved,
+ * so {@link #seek} replays at most one interval instead of the session.
+ */
+public final class GameLog {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 128;
+
+    // 事件種類放在最高 8 bit，其餘為內容
+    public static final int MOVE = 1;
+    public static final int UNDO = 2;
+    public static final int TIMEOUT = 3;
+    public static final int ROUND_END = 4;
+    public static final int SCORE = 5;
+    /** {@link #roundEnd} winner for a round reset before anyone won. */
+    public static final int ABANDONED = 3;
+
+    private static final int SNAPSHOT_HEADER = 6; // 局數、三個分數、輪到誰、棋子數
+
+    private final int size;
+    private final int winLength;
+    private final int snapshotInterval;
+    private long[] events = new long[256];
+    private int[] plies = new int[256]; // 每個事件之後盤上的棋子數
+    private int count;
+    private int[] roundStarts = new int[16];
+    private int[] snapshotOffsets = new int[16];
+    private int[] snapshotData = new int[1024];
+    private int snapshots;
+    private int snapshotLength;
+    private final Position live; // 跟著事件更新的目前狀態，拍快照用
+    private int[] redo = new int[16]; // 連續悔棋移除的棋子，格子 << 1 | 是否為 O
+    private int redoCount;
+
+    /** A replayed point in the session; reuse one instance across seeks. */
+    public static final class Position {
+        public final GameState state;
+        public int round;
+        public int xWins;
+        public int oWins;
+        public int draws;
+        public int events; // 已套用的事件數
+
+        public Position(int size, int winLength) {
+            state = new GameState(size, winLength);
+        }
+    }
+
+    public GameLog(int size, int winLength) {
+        this(size, winLength, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    public GameLog(int size, int winLength, int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.snapshotInterval = snapshotInterval;
+        this.live = new Position(size, winLength);
+    }
+
+    public void move(int cell, int player) {
+        int stone = cell << 1 | (player == GameState.O ? 1 : 0);
+        append(event(MOVE, stone));
+        if (redoCount > 0 && redo[redoCount - 1] == stone) {
+            redoCount--; // 重下剛悔掉的棋，後面的仍可重做
+        } else {
+            redoCount = 0;
+        }
+    }
+
+    public void undo() {
+        int cell = live.state.lastMove();
+        if (cell < 0) {
+            return;
+        }
+        if (redoCount == redo.length) {
+            redo = Arrays.copyOf(redo, redoCount * 2);
+        }
+        redo[redoCount++] = cell << 1 | (live.state.get(cell) == GameState.O ? 1 : 0);
+        append(event(UNDO, 0));
+    }
+
+    public void timeout() {
+        append(event(TIMEOUT, 0));
+    }
+
+    /** Ends the round and clears the board; {@code winner} is X, O, EMPTY for a draw or {@link #ABANDONED}. */
+    public void roundEnd(int winner) {
+        redoCount = 0;
+        append(event(ROUND_END, winner));
+    }
+
+    /** Records a score set from outside the rounds, e.g. a new series or a loaded match. */
+    public void score(int xWins, int oWins, int draws) {
+        append(event(SCORE, (long) clamp(xWins) << 32 | (long) clamp(oWins) << 16 | clamp(draws)));
+    }
+
+    /** The cell {@link #undo} last removed if its player is to move again, else -1. */
+    public int redoCell() {
+        if (redoCount == 0) {
+            return -1;
+        }
+        int stone = redo[redoCount - 1];
+        int player = (stone & 1) == 0 ? GameState.X : GameState.O;
+        return player == live.state.toMove() ? stone >>> 1 : -1;
+    }
+
+    public int events() {
+        return count;
+    }
+
+    /** Rounds so far, the one in progress included. */
+    public int rounds() {
+        return live.round + 1;
+    }
+
+    public int type(int event) {
+        return (int) (events[event] >>> 56);
+    }
+
+    /** Restores the session as it was after the first {@code events} events. */
+    public void seek(int events, Position into) {
+        if (events < 0 || events > count) {
+            throw new IndexOutOfBoundsException("Event " + events + " of " + count);
+        }
+        int snapshot = Math.min(events / snapshotInterval, snapshots);
+        int from = 0;
+        if (snapshot == 0) {
+            into.state.clear();
+            into.round = 0;
+            into.xWins = 0;
+            into.oWins = 0;
+            into.draws = 0;
+        } else {
+            from = restore(snapshot - 1, into);
+        }
+        for (int i = from; i < events; i++) {
+            apply(this.events[i], into);
+        }
+        into.events = events;
+    }
+
+    /**
+     * Restores the board of {@code round} with its final line cut to {@code ply}
+     * stones; returns the event count seeked to.
+     */
+    public int seek(int round, int ply, Position into) {
+        if (round < 0 || round >= rounds()) {
+            throw new IndexOutOfBoundsException("Round " + round + " of " + rounds());
+        }
+        int start = roundStarts(round);
+        int end = round + 1 < rounds() ? roundStarts(round + 1) - 1 : count; // 不含結束事件本身
+        // 最後一次剛好有 ply 子之後，前 ply 子就不再變動
+        for (int e = end; e >= start; e--) {
+            if ((e == start ? 0 : plies[e - 1]) == ply) {
+                seek(e, into);
+                return e;
+            }
+        }
+        throw new IllegalArgumentException("Round " + round + " never had " + ply + " stones");
+    }
+
+    private int roundStarts(int round) {
+        return round == 0 ? 0 : roundStarts[round - 1];
+    }
+
+    private static long event(int type, long payload) {
+        return (long) type << 56 | payload;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(value, 0xFFFF));
+    }
+
+    private void append(long event) {
+        if (count == events.length) {
+            events = Arrays.copyOf(events, count * 2);
+            plies = Arrays.copyOf(plies, count * 2);
+        }
+        apply(event, live);
+        events[count] = event;
+        plies[count] = live.state.moveCount();
+        count++;
+        live.events = count;
+        if (type(count - 1) == ROUND_END) {
+            if (live.round - 1 == roundStarts.length) {
+                roundStarts = Arrays.copyOf(roundStarts, roundStarts.length * 2);
+            }
+            roundStarts[live.round - 1] = count;
+        }
+        if (count % snapshotInterval == 0) {
+            snapshot();
+        }
+    }
+
+    private static void apply(long event, Position position) {
+        GameState state = position.state;
+        int payload = (int) event;
+        switch ((int) (event >>> 56)) {
+            case MOVE -> state.place(payload >>> 1, (payload & 1) == 0 ? GameState.X : GameState.O);
+            case UNDO -> state.undo();
+            case TIMEOUT -> state.passTurn();
+            case ROUND_END -> {
+                if (payload == GameState.X) {
+                    position.xWins++;
+                } else if (payload == GameState.O) {
+                    position.oWins++;
+                } else if (payload == GameState.EMPTY) {
+                    position.draws++;
+                }
+                state.clear();
+                position.round++;
+            }
+            case SCORE -> {
+                position.xWins = (int) (event >>> 32 & 0xFFFF);
+                position.oWins = payload >>> 16;
+                position.draws = payload & 0xFFFF;
+            }
+            default -> throw new IllegalStateException("Unknown event: " + Long.toHexString(event));
+        }
+    }
+
+    // 快照只存棋子順序與分數，還原時照順序落子，之後的悔棋才會正確
+    private void snapshot() {
+        GameState state = live.state;
+        int need = snapshotLength + SNAPSHOT_HEADER + state.moveCount();
+        if (need > snapshotData.length) {
+            snapshotData = Arrays.copyOf(snapshotData, Math.max(need, snapshotData.length * 2));
+        }
+        if (snapshots == snapshotOffsets.length) {
+            snapshotOffsets = Arrays.copyOf(snapshotOffsets, snapshots * 2);
+        }
+        snapshotOffsets[snapshots++] = snapshotLength;
+        int at = snapshotLength;
+        snapshotData[at++] = live.round;
+        snapshotData[at++] = live.xWins;
+        snapshotData[at++] = live.oWins;
+        snapshotData[at++] = live.draws;
+        snapshotData[at++] = state.toMove();
+        snapshotData[at++] = state.moveCount();
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            snapshotData[at++] = cell << 1 | (state.get(cell) == GameState.O ? 1 : 0);
+        }
+        snapshotLength = at;
+    }
+
+    // 回傳快照所在的事件數
+    private int restore(int snapshot, Position into) {
+        int at = snapshotOffsets[snapshot];
+        into.round = snapshotData[at++];
+        into.xWins = snapshotData[at++];
+        into.oWins = snapshotData[at++];
+        into.draws = snapshotData[at++];
+        int toMove = snapshotData[at++];
+        int stones = snapshotData[at++];
+        GameState state = into.state;
+        state.clear();
+        for (int i = 0; i < stones; i++) {
+            int stone = snapshotData[at++];
+            state.place(stone >>> 1, (stone & 1) == 0 ? GameState.X : GameState.O);
+        }
+        state.setToMove(toMove);
+        return (snapshot + 1) * snapshotInterval;
+    }
+
+    public int boardSize() {
+        return size;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    public int snapshots() {
+        return snapshots;
+    }
+}
@@ -0,0 +1,261 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Swing-free Gomoku position: one bitboard per player, O(1) place and undo.
+ * Cells are addressed as {@code row * size + col}; board size and win length
+ * are per instance, and clear/copy cost is proportional to the stones played.
+ */
+public final class GameState {
+
+    public static final int EMPTY = 0;
+    public static final int X = 1;
+    public static final int O = 2;
+
+    public static final int DEFAULT_SIZE = 9;
+    public static final int DEFAULT_WIN_LENGTH = 5;
+    public static final int MAX_SIZE = 1023; // 格子編號 + 1 需放得進置換表的 20 bit
+
+    // 四個方向：橫、直、對角、反對角
+    public static final int[] DR = {0, 1, 1, 1};
+    public static final int[] DC = {1, 0, 1, -1};
+
+    private final int size;
+    private final int cells;
+    private final int winLength;
+    private final long[][] bits; // 以玩家編號索引，0 不使用
+    private int[] moves; // 落子順序，依需要成長
+    private int moveCount;
+    private int toMove = X;
+    private long hash; // Zobrist 雜湊，落子、悔棋與換手時同步更新
+
+    public GameState() {
+        this(DEFAULT_SIZE, DEFAULT_WIN_LENGTH);
+    }
+
+    public GameState(int size, int winLength) {
+        checkDimensions(size, winLength);
+        this.size = size;
+        this.cells = size * size;
+        this.winLength = winLength;
+        this.bits = new long[3][(cells + 63) >>> 6];
+        this.moves = new int[Math.min(cells, 64)];
+    }
+
+    /** Throws {@link IllegalArgumentException} unless a board of these dimensions can be built. */
+    static void checkDimensions(int size, int winLength) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be 1.." + MAX_SIZE + ": " + size);
+        }
+        if (winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Win length must be 1.." + size + ": " + winLength);
+        }
+    }
+
+    public static int opponent(int player) {
+        return 3 - player;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int cells() {
+        return cells;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    public int cell(int row, int col) {
+        return row * size + col;
+    }
+
+    public int row(int cell) {
+        return cell / size;
+    }
+
+    public int col(int cell) {
+        return cell % size;
+    }
+
+    public boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    public int get(int cell) {
+        long mask = 1L << cell;
+        int word = cell >>> 6;
+        if ((bits[X][word] & mask) != 0) {
+            return X;
+        }
+        return (bits[O][word] & mask) != 0 ? O : EMPTY;
+    }
+
+    public int get(int row, int col) {
+        return get(cell(row, col));
+    }
+
+    public boolean isEmpty(int cell) {
+        long mask = 1L << cell;
+        int word = cell >>> 6;
+        return ((bits[X][word] | bits[O][word]) & mask) == 0;
+    }
+
+    public boolean isOccupiedBy(int cell, int player) {
+        return (bits[player][cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Checks only the four lines through {@code cell} and returns the packed
+     * run containing it, or {@link WinLine#NONE} when it is too short to win.
+     */
+    public long winningLine(int cell) {
+        int player = get(cell);
+        if (player == EMPTY) {
+            return WinLine.NONE;
+        }
+        int row = row(cell);
+        int col = col(cell);
+        for (int dir = 0; dir < 4; dir++) {
+            int back = count(row, col, -DR[dir], -DC[dir], player);
+            int length = back + 1 + count(row, col, DR[dir], DC[dir], player);
+            if (length >= winLength) {
+                return WinLine.pack(cell(row - back * DR[dir], col - back * DC[dir]), dir, length);
+            }
+        }
+        return WinLine.NONE;
+    }
+
+    /** True if placing {@code player} on the empty {@code cell} would win. */
+    public boolean wouldWin(int cell, int player) {
+        int row = row(cell);
+        int col = col(cell);
+        for (int dir = 0; dir < 4; dir++) {
+            if (count(row, col, -DR[dir], -DC[dir], player) + 1
+                    + count(row, col, DR[dir], DC[dir], player) >= winLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 從 (row, col) 往 (dr, dc) 方向數連續同色棋子，不含起點
+    private int count(int row, int col, int dr, int dc, int player) {
+        int n = 0;
+        int r = row + dr;
+        int c = col + dc;
+        while (r >= 0 && r < size && c >= 0 && c < size && isOccupiedBy(r * size + c, player)) {
+            n++;
+            r += dr;
+            c += dc;
+        }
+        return n;
+    }
+
+    /** Places a stone for the side to move. */
+    public void place(int cell) {
+        place(cell, toMove);
+    }
+
+    /** Places a stone for {@code player}; the opponent moves next. */
+    public void place(int cell, int player) {
+        if (!isEmpty(cell)) {
+            throw new IllegalArgumentException("Cell already occupied: " + cell);
+        }
+        bits[player][cell >>> 6] |= 1L << cell;
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, Math.min(cells, moves.length * 2));
+        }
+        moves[moveCount++] = cell;
+        hash ^= Zobrist.key(player, cell);
+        setToMove(opponent(player));
+    }
+
+    /** Removes the last stone and returns its cell, or -1 if the board is empty. */
+    public int undo() {
+        if (moveCount == 0) {
+            return -1;
+        }
+        int cell = moves[--moveCount];
+        int player = get(cell);
+        bits[player][cell >>> 6] &= ~(1L << cell);
+        hash ^= Zobrist.key(player, cell);
+        setToMove(player);
+        return cell;
+    }
+
+    /** Hands the turn to the opponent without placing a stone (time-out). */
+    public void passTurn() {
+        setToMove(opponent(toMove));
+    }
+
+    public int toMove() {
+        return toMove;
+    }
+
+    public void setToMove(int player) {
+        if (player != toMove) {
+            hash ^= Zobrist.SIDE;
+            toMove = player;
+        }
+    }
+
+    /** Zobrist key of the stones and the side to move. */
+    public long hash() {
+        return hash;
+    }
+
+    public int moveCount() {
+        return moveCount;
+    }
+
+    public int moveAt(int index) {
+        return moves[index];
+    }
+
+    public int lastMove() {
+        return moveCount == 0 ? -1 : moves[moveCount - 1];
+    }
+
+    public boolean isFull() {
+        return moveCount == cells;
+    }
+
+    public void clear() {
+        while (moveCount > 0) {
+            int cell = moves[--moveCount];
+            bits[X][cell >>> 6] = 0L;
+            bits[O][cell >>> 6] = 0L;
+        }
+        toMove = X;
+        hash = 0L;
+    }
+
+    public GameState copy() {
+        GameState copy = new GameState(size, winLength);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /** Copies {@code other}, which must have the same dimensions, stone by stone. */
+    public void copyFrom(GameState other) {
+        if (other.size != size || other.winLength != winLength) {
+            throw new IllegalArgumentException("Board dimensions differ");
+        }
+        clear();
+        if (moves.length < other.moveCount) {
+            moves = Arrays.copyOf(moves, other.moves.length);
+        }
+        for (int i = 0; i < other.moveCount; i++) {
+            int cell = other.moves[i];
+            bits[other.get(cell)][cell >>> 6] |= 1L << cell;
+            moves[i] = cell;
+        }
+        moveCount = other.moveCount;
+        toMove = other.toMove;
+        hash = other.hash;
+    }
+}
@@ -5,46 +5,120 @@ import java.awt.*; //GUI中繪圖和布局功能
 import java.awt.event.KeyEvent; //按鍵按鈕
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class GomokuGame extends JFrame {
 
-    public JButton[][] board; //棋盤
+    public BoardView board; //棋盤，單一元件依 state 繪製
     public char currentPlayer; //紀錄當前是XO
     public boolean gameWon; //標記遊戲是否結束
     public JLabel statusBar; //狀態列，顯示當前玩家資訊
     public JLabel timerLabel; //顯示倒數計時
     public JLabel scoreLabel; //顯示分數
-    public Stack<Point> moveHistory; //儲存玩家移動的歷史記錄
+    public MoveLog moveHistory; //儲存玩家移動的歷史記錄，每步只佔一到三個位元組
+    public GameLog gameLog; // 整場的事件紀錄，可重做與回看任一局任一步
     public int playerXWins;
     public int playerOWins;
     public int noOneWin;
-    public static final int WINNING_GAMES = 3; // 設定贏的局數
-    public Timer timer; // 倒數計時器
+    public static final int WINNING_GAMES = Match.WINNING_GAMES; // 設定贏的局數
+    public static final int TURN_SECONDS = 15; // 每回合秒數
+    public Countdown timer; // 倒數計時器，掛在全程式共用的 TurnClock 上
     public int timeRemaining; // 剩餘時間
-    public JButton hintedButton = null; // 用於記錄當前被提示的按鈕
+    public GameState state; // 無介面的棋盤狀態，棋盤元件只負責顯示
+    public final int boardSize; // 棋盤邊長
+    public final int winLength; // 連成幾子獲勝
+    public static final long HINT_TIME_MILLIS = 2000; // 提示搜尋的時間上限
+    public static final int HINT_MAX_DEPTH = 8;
+    public static final int TT_MEGABYTES = Integer.getInteger("gomoku.ttMegabytes", 4); // 置換表大小，可用 -Dgomoku.ttMegabytes 調整
+    public final Evaluator evaluator; // 隨落子與悔棋增量更新
+    public final ParallelSearch searchEngine; // 執行緒數可用 -Dgomoku.searchThreads 調整
+    public volatile SearchResult lastSearch; // 最近一次提示的搜尋統計
+    public volatile int hintDepth; // 完整時間預算的搜尋最近達到的深度，快取裡較淺的結果不採用
+    // 提示改用 MCTS，可用 -Dgomoku.hintEngine=mcts 預設開啟或從選單切換
+    public volatile boolean mctsHints = "mcts".equals(System.getProperty("gomoku.hintEngine"));
+    public volatile MctsEngine mctsEngine; // 第一次使用時才配置節點陣列
+    // 以標準局面雜湊快取提示結果，悔棋後、對稱局面或其他視窗遇過的局面可立即顯示
+    public final AnalysisCache analysisCache = AnalysisCache.shared();
+    // 提示在背景執行緒計算，不阻塞 EDT
+    public final ExecutorService hintExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gomoku-hint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    public Future<?> hintTask;
+    // 完成的對局寫入此目錄，可用 -Dgomoku.archiveDir 指定
+    public static final Path ARCHIVE_DIR = Paths.get(System.getProperty("gomoku.archiveDir",
+            Paths.get(System.getProperty("user.home"), ".gomoku", "archive").toString()));
+    public GameArchive archive; // 第一局結束時才開啟
+    // 開局庫，可用 -Dgomoku.book 指定；檔案不存在時只靠搜尋
+    public static final Path BOOK_FILE = Paths.get(System.getProperty("gomoku.book",
+            Paths.get(System.getProperty("user.home"), ".gomoku", "opening.book").toString()));
+    public final OpeningBook openingBook = OpeningBook.loadIfPresent(BOOK_FILE);
 
 
     public GomokuGame() { //初始化遊戲邏輯和GUI
-        initializeGame();
-        initializeGUI();
+        this(GameState.DEFAULT_SIZE, GameState.DEFAULT_WIN_LENGTH);
+    }
+
+    public GomokuGame(int boardSize, int winLength) {
+        GameState.checkDimensions(boardSize, winLength); // 先驗證，不合法時不會留下搜尋執行緒
+        this.boardSize = boardSize;
+        this.winLength = winLength;
+        Supplier<Evaluator> evaluators = evaluatorsFor(winLength);
+        this.evaluator = evaluators.get();
+        this.searchEngine = new ParallelSearch(ParallelSearch.defaultThreads(),
+                TranspositionTable.ofMegabytes(TT_MEGABYTES), evaluators);
+        Metrics.registerMBean(); // 可用 jconsole 查看 org.example:type=Metrics
+        try {
+            initializeGame();
+            initializeGUI();
+        } catch (RuntimeException e) {
+            searchEngine.close();
+            throw e;
+        }
     }
 
     public final void initializeGame() {
-        board = new JButton[9][9];
+        state = new GameState(boardSize, winLength);
+        evaluator.reset(state);
         currentPlayer = 'X';
         gameWon = false;
-        moveHistory = new Stack<>();
+        moveHistory = new MoveLog(boardSize * boardSize);
+        gameLog = new GameLog(boardSize, winLength);
         playerXWins = 0;
         playerOWins = 0;
         noOneWin = 0;
-        timer = new Timer();
-        timeRemaining = 15; // 每回合15秒
+        if (timer != null) {
+            timer.cancel();
+        }
+        // 回呼在時鐘執行緒上，介面更新一律交給 EDT
+        timer = TurnClock.shared().countdown(TURN_SECONDS, new Countdown.Listener() {
+            @Override
+            public void onTick(int secondsLeft) {
+                SwingUtilities.invokeLater(GomokuGame.this::showTimeRemaining);
+            }
+
+            @Override
+            public void onExpired() {
+                SwingUtilities.invokeLater(GomokuGame.this::timeUp);
+            }
+        });
+        timeRemaining = TURN_SECONDS;
     }
 
     public final void initializeGUI() {
@@ -72,95 +146,68 @@ public class GomokuGame extends JFrame {
         undoItem.addActionListener(e -> undoMove());
         optionsMenu.add(undoItem);
 
+        JMenuItem redoItem = new JMenuItem("Redo");
+        redoItem.setMnemonic(KeyEvent.VK_E);
+        redoItem.addActionListener(e -> redoMove());
+        optionsMenu.add(redoItem);
+
+        // 回看本次開啟以來任一局的任一步
+        JMenuItem replayItem = new JMenuItem("Replay...");
+        replayItem.setMnemonic(KeyEvent.VK_P);
+        replayItem.addActionListener(e -> showReplay());
+        optionsMenu.add(replayItem);
+
+        // 存檔與讀檔，系列賽可在下次開啟時接續
+        JMenuItem saveItem = new JMenuItem("Save...");
+        saveItem.setMnemonic(KeyEvent.VK_S);
+        saveItem.addActionListener(e -> chooseFile(true));
+        optionsMenu.add(saveItem);
+
+        JMenuItem loadItem = new JMenuItem("Load...");
+        loadItem.setMnemonic(KeyEvent.VK_L);
+        loadItem.addActionListener(e -> chooseFile(false));
+        optionsMenu.add(loadItem);
+
         // 添加 Hint 選項
         JMenuItem hintItem = new JMenuItem("Hint");
         hintItem.setMnemonic(KeyEvent.VK_H);
-        hintItem.addActionListener(e -> {
-            if (hintedButton != null) {
-                hintedButton.setBackground(null); // 恢復原本的顏色
-            }
-            Point hint = suggestMove();
-            if (hint != null) {
-                hintedButton = board[hint.x][hint.y];
-                hintedButton.setBackground(Color.RED);
-            }
-        });
+        hintItem.addActionListener(e -> requestHint());
         optionsMenu.add(hintItem);
 
+        JCheckBoxMenuItem mctsItem = new JCheckBoxMenuItem("MCTS Hints", mctsHints);
+        mctsItem.addActionListener(e -> mctsHints = mctsItem.isSelected());
+        optionsMenu.add(mctsItem);
+
+        // 執行期統計，與 JMX 上的內容相同
+        JMenuItem metricsItem = new JMenuItem("Metrics");
+        metricsItem.setMnemonic(KeyEvent.VK_M);
+        metricsItem.addActionListener(e -> showMetrics());
+        optionsMenu.add(metricsItem);
+
         // 狀態欄
         JPanel statusPanel = new JPanel(new GridLayout(1, 3));
+        Font labelFont = new Font("Arial", Font.PLAIN, 20);
 
         statusBar = new JLabel("Current Turn: " + currentPlayer);
-        statusBar.setFont(new Font("Arial", Font.PLAIN, 20));
+        statusBar.setFont(labelFont);
         statusBar.setHorizontalAlignment(SwingConstants.CENTER);
         statusPanel.add(statusBar);
 
         timerLabel = new JLabel("Time Remaining: " + timeRemaining + " seconds");
-        timerLabel.setFont(new Font("Arial", Font.PLAIN, 20));
+        timerLabel.setFont(labelFont);
         timerLabel.setHorizontalAlignment(SwingConstants.CENTER);
         statusPanel.add(timerLabel);
 
         scoreLabel = new JLabel("Score - X: 0 | O: 0 | Draws: 0");
-        scoreLabel.setFont(new Font("Arial", Font.PLAIN, 20));
+        scoreLabel.setFont(labelFont);
         scoreLabel.setHorizontalAlignment(SwingConstants.CENTER);
         statusPanel.add(scoreLabel);
 
         add(statusPanel, BorderLayout.SOUTH);
 
         // 棋盤
-        JPanel boardPanel = new JPanel(new GridLayout(9, 9));
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                board[i][j] = new JButton("");
-                board[i][j].setFont(new Font("Arial", Font.PLAIN, 40));
-                board[i][j].setFocusPainted(false);
-                int row = i;
-                int col = j;
-                board[i][j].addActionListener(e -> {
-                    if (hintedButton == board[row][col]) {
-                        hintedButton.setBackground(null); // 恢復原本的顏色
-                        hintedButton = null;
-                    }
-                    if (!gameWon && board[row][col].getText().isEmpty()) { // 若位置為空，紀錄動作並設置 XO
-                        moveHistory.push(new Point(row, col));
-                        board[row][col].setText(Character.toString(currentPlayer));
-
-                        List<Point> winningLine = checkWin(row, col);
-                        if (!winningLine.isEmpty()) { // 這裡原本是 if (winningLine != null)
-                            gameWon = true;
-                            highlightWinningButtons(winningLine);
-                            if (currentPlayer == 'X') {
-                                playerXWins++;
-                            } else {
-                                playerOWins++;
-                            }
-                            updateScore();
-
-                            if (playerXWins == WINNING_GAMES || playerOWins == WINNING_GAMES) {
-                                JOptionPane.showMessageDialog(null, currentPlayer + " wins the game!\nX Wins: " + playerXWins + " | O Wins: " + playerOWins);
-                                resetGame();
-                            } else {
-                                JOptionPane.showMessageDialog(null, currentPlayer + " wins this round!\nX Wins: " + playerXWins + " | O Wins: " + playerOWins);
-                                resetBoard();
-                            }
-                        } else if (isBoardFull()) {
-                            gameWon = true;
-                            JOptionPane.showMessageDialog(null, "平手!\nX Wins: " + playerXWins + " | O Wins: " + playerOWins);
-                            noOneWin++;
-                            resetBoard();
-                        } else {
-                            currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
-                            statusBar.setText("Current Turn: " + currentPlayer);
-                            resetTimer();
-                        }
-                    }
-                });
-                boardPanel.add(board[i][j]);
-            }
-        }
-
-        add(boardPanel, BorderLayout.CENTER);
+        board = new BoardView(state, this::cellClicked);
+        add(board, BorderLayout.CENTER);
 
         setSize(850, 850);
         setLocationRelativeTo(null);
@@ -175,12 +222,11 @@ public class GomokuGame extends JFrame {
             if (event instanceof WindowEvent) {
                 WindowEvent windowEvent = (WindowEvent) event;
                 if (windowEvent.getID() == WindowEvent.WINDOW_OPENED && windowEvent.getWindow() instanceof JDialog) {
-                timer.cancel();
+                timer.pause();
                 ((JDialog) windowEvent.getWindow()).addWindowListener(new WindowAdapter() {
                     @Override
                     public void windowClosed(WindowEvent e) {
-                    timer = new Timer();
-                    startTimer();
+                    timer.resume();
                     }
                 });
                 }
@@ -189,182 +235,252 @@ public class GomokuGame extends JFrame {
         });
     }
 
-    public void startTimer() {
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                if (timeRemaining > 0) {
-                    timeRemaining--;
-                    timerLabel.setText("Time Remaining: " + timeRemaining + " seconds");
+    public void cellClicked(int row, int col) {
+        if (board.hintCell() == state.cell(row, col)) {
+            board.setHint(-1); // 恢復原本的顏色
+        }
+        if (!gameWon && state.isEmpty(state.cell(row, col))) { // 若位置為空，紀錄動作並設置 XO
+            long start = Metrics.start();
+            cancelHint(); // 局面即將改變，舊的提示搜尋已無意義
+            moveHistory.add(state.cell(row, col));
+            state.place(state.cell(row, col), stoneOf(currentPlayer));
+            gameLog.move(state.cell(row, col), stoneOf(currentPlayer));
+            evaluator.onPlace(state, state.cell(row, col));
+            board.cellChanged(state.cell(row, col)); // 只重繪這一格
+
+            long checkStart = Metrics.start();
+            long winningLine = state.winningLine(state.cell(row, col)); // 只檢查經過落子的四條線
+            Metrics.global().winCheckDone(checkStart);
+            Metrics.global().moveDone(start); // 不含之後對話框等待使用者的時間
+            if (winningLine != WinLine.NONE) {
+                gameWon = true;
+                board.setWinningLine(winningLine);
+                if (currentPlayer == 'X') {
+                    playerXWins++;
+                } else {
+                    playerOWins++;
+                }
+                updateScore();
+
+                if (playerXWins == WINNING_GAMES || playerOWins == WINNING_GAMES) {
+                    JOptionPane.showMessageDialog(null, currentPlayer + " wins the game!\nX Wins: " + playerXWins + " | O Wins: " + playerOWins);
+                    resetGame();
                 } else {
-                    // 時間到，切換玩家
-                    JOptionPane.showMessageDialog(null, "Time's up! Switching turn to " + ((currentPlayer == 'X') ? 'O' : 'X'));
-                    currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
-                    statusBar.setText("Current Turn: " + currentPlayer);
-                    resetTimer();
+                    JOptionPane.showMessageDialog(null, currentPlayer + " wins this round!\nX Wins: " + playerXWins + " | O Wins: " + playerOWins);
+                    resetBoard();
                 }
+            } else if (isBoardFull()) {
+                gameWon = true;
+                JOptionPane.showMessageDialog(null, "平手!\nX Wins: " + playerXWins + " | O Wins: " + playerOWins);
+                noOneWin++;
+                resetBoard();
+            } else {
+                currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
+                statusBar.setText("Current Turn: " + currentPlayer);
+                resetTimer();
             }
-        }, 1000, 1000);
+        }
+    }
+
+    public void startTimer() {
+        timer.start();
+    }
+
+    public void showTimeRemaining() {
+        timeRemaining = timer.remainingSeconds(); // 讀當下的值，重設後才到的舊 tick 不會覆蓋
+        timerLabel.setText("Time Remaining: " + timeRemaining + " seconds");
+    }
+
+    public void timeUp() {
+        if (!timer.isExpired()) {
+            return; // 倒數已被重設，這是過期的通知
+        }
+        // 時間到，停止尚未完成的提示搜尋並切換玩家
+        searchEngine.cancel();
+        if (mctsEngine != null) {
+            mctsEngine.cancel();
+        }
+        Metrics.global().timedOut();
+        gameLog.timeout();
+        JOptionPane.showMessageDialog(null, "Time's up! Switching turn to " + ((currentPlayer == 'X') ? 'O' : 'X'));
+        currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
+        statusBar.setText("Current Turn: " + currentPlayer);
+        resetTimer();
     }
 
     public void resetTimer() {
-        timeRemaining = 15;
+        timeRemaining = TURN_SECONDS;
         timerLabel.setText("Time Remaining: " + timeRemaining + " seconds");
+        timer.reset();
     }
 
     public void undoMove() {
         if (!moveHistory.isEmpty()) {
-            Point lastMove = moveHistory.pop(); //從堆疊取出最後一次移動的座標
-            int row = (int) lastMove.getX();
-            int col = (int) lastMove.getY();
-            board[row][col].setText("");
-            board[row][col].setForeground(null);
-            currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
+            cancelHint();
+            Metrics.global().undone();
+            gameLog.undo();
+            moveHistory.removeLast();
+            evaluator.onUndo(state, state.lastMove());
+            int lastMove = state.undo(); //取出最後一次移動的座標，輪到下該子的玩家
+            board.setWinningLine(WinLine.NONE);
+            board.cellChanged(lastMove);
+            currentPlayer = symbolOf(state.toMove());
             statusBar.setText("Current Turn: " + currentPlayer);
             resetTimer();
             gameWon = false;
         }
     }
 
-    public void highlightWinningButtons(List<Point> winningLine) {
-        for (Point point : winningLine) {
-            int i = point.x;
-            int j = point.y;
-            board[i][j].setForeground(Color.RED);
+    /** Plays back the move the last undo took, if that player is to move again. */
+    public void redoMove() {
+        int cell = gameLog.redoCell();
+        if (!gameWon && cell >= 0) {
+            cellClicked(state.row(cell), state.col(cell));
         }
     }
 
-    public List<Point> checkWin(int row, int col) {
-        List<Point> winningLine = checkRow(row); //橫列
-        if (!winningLine.isEmpty()) return winningLine;
+    /** Asks for a round and ply and shows that position in a read-only board. */
+    public void showReplay() {
+        String input = JOptionPane.showInputDialog(this, "Round (1-" + gameLog.rounds() + ") and ply, e.g. 1 10");
+        if (input == null) {
+            return;
+        }
+        GameLog.Position position = new GameLog.Position(boardSize, winLength);
+        try {
+            String[] parts = input.trim().split("\\s+");
+            int round = Integer.parseInt(parts[0]) - 1;
+            int ply = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            gameLog.seek(round, ply, position);
+        } catch (RuntimeException e) {
+            JOptionPane.showMessageDialog(this, "Cannot replay: " + e.getMessage());
+            return;
+        }
+        BoardView view = new BoardView(position.state, (row, col) -> { });
+        view.setPreferredSize(new Dimension(500, 500));
+        JOptionPane.showMessageDialog(this, view, "Round " + (position.round + 1) + ", ply "
+                + position.state.moveCount() + " - X: " + position.xWins + " | O: " + position.oWins
+                + " | Draws: " + position.draws, JOptionPane.PLAIN_MESSAGE);
+    }
 
-        winningLine = checkColumn(col); //直列
-        if (!winningLine.isEmpty()) return winningLine;
+    public List<Point> checkWin(int row, int col) {
+        return toPoints(state.winningLine(state.cell(row, col)));
+    }
 
-        winningLine = checkDiagonal(row, col); //對角線
-        if (!winningLine.isEmpty()) return winningLine;
+    public List<Point> toPoints(long winningLine) {
+        if (winningLine == WinLine.NONE) {
+            return Collections.emptyList();
+        }
+        List<Point> points = new ArrayList<>(WinLine.length(winningLine));
+        for (int i = 0; i < WinLine.length(winningLine); i++) {
+            int cell = WinLine.cellAt(state, winningLine, i);
+            points.add(new Point(state.row(cell), state.col(cell)));
+        }
+        return points;
+    }
 
-        winningLine = checkAntiDiagonal(row, col); //反對角線
-        if (!winningLine.isEmpty()) return winningLine;
+    public boolean isBoardFull() {
+        return state.isFull();
+    }
 
-        return Collections.emptyList();
+    public void resetBoard() {
+        cancelHint();
+        Metrics.global().boardReset();
+        if (gameWon) {
+            archiveFinishedGame();
+            gameLog.roundEnd(winnerOf(state));
+        } else if (state.moveCount() > 0) {
+            gameLog.roundEnd(GameLog.ABANDONED);
+        }
+        currentPlayer = 'X';
+        gameWon = false;
+        moveHistory.clear();
+        state.clear();
+        evaluator.reset(state);
+        board.refresh();
+        statusBar.setText("Current Turn: " + currentPlayer);
+        resetTimer();
     }
 
-    public List<Point> checkRow(int row) {
-        int count = 0;
-        List<Point> winningLine = new ArrayList<>();
+    // 最後一手連線者獲勝，否則為和局
+    public static int winnerOf(GameState finished) {
+        int last = finished.lastMove();
+        return last >= 0 && finished.winningLine(last) != WinLine.NONE ? finished.get(last) : GameState.EMPTY;
+    }
 
-        for (int j = 0; j < 9; j++) {
-            if (board[row][j].getText().equals(Character.toString(currentPlayer))) {
-                count++;
-                winningLine.add(new Point(row, j));
-                if (count == 5) return winningLine;
-            } else {
-                count = 0;
-                winningLine.clear();
+    public void archiveFinishedGame() {
+        int winner = winnerOf(state);
+        try {
+            if (archive == null) {
+                archive = GameArchive.open(ARCHIVE_DIR);
             }
+            archive.append(state, winner);
+        } catch (IOException e) {
+            System.err.println("Cannot archive game: " + e.getMessage()); // 存檔失敗不影響遊戲
         }
-        return Collections.emptyList();
     }
 
-    public List<Point> checkColumn(int col) {
-        int count = 0;
-        List<Point> winningLine = new ArrayList<>();
-
-        for (int i = 0; i < 9; i++) {
-            if (board[i][col].getText().equals(Character.toString(currentPlayer))) {
-                count++;
-                winningLine.add(new Point(i, col));
-                if (count == 5) return winningLine;
+    public void chooseFile(boolean save) {
+        JFileChooser chooser = new JFileChooser();
+        int choice = save ? chooser.showSaveDialog(this) : chooser.showOpenDialog(this);
+        if (choice != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        try {
+            if (save) {
+                saveMatch(file);
             } else {
-                count = 0;
-                winningLine.clear();
+                loadMatch(file);
             }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, (save ? "Save" : "Load") + " failed: " + e.getMessage());
         }
-        return Collections.emptyList();
     }
 
-    public List<Point> checkDiagonal(int row, int col) {
-        int count = 1;
-        List<Point> winningLine = new ArrayList<>();
-        winningLine.add(new Point(row, col));
-
-        int i = row - 1;
-        int j = col - 1;
-        while (i >= 0 && j >= 0 && board[i][j].getText().equals(Character.toString(currentPlayer))) {
-            count++;
-            winningLine.add(0, new Point(i, j));
-            i--;
-            j--;
+    public void saveMatch(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            GameJson.writeMatch(new SavedMatch(hintPosition(), playerXWins, playerOWins, noOneWin), out);
         }
-
-        i = row + 1;
-        j = col + 1;
-        while (i < 9 && j < 9 && board[i][j].getText().equals(Character.toString(currentPlayer))) {
-            count++;
-            winningLine.add(new Point(i, j));
-            i++;
-            j++;
-        }
-
-        return count >= 5 ? winningLine : Collections.emptyList();
     }
 
-    public List<Point> checkAntiDiagonal(int row, int col) {
-        int count = 1;
-        List<Point> winningLine = new ArrayList<>();
-        winningLine.add(new Point(row, col));
-
-        int i = row - 1;
-        int j = col + 1;
-        while (i >= 0 && j < 9 && board[i][j].getText().equals(Character.toString(currentPlayer))) {
-            count++;
-            winningLine.add(0, new Point(i, j));
-            i--;
-            j++;
+    /** Restores a saved series; the file must use this window's board. */
+    public void loadMatch(Path file) throws IOException {
+        SavedMatch saved;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            saved = GameJson.readMatch(in);
         }
-
-        i = row + 1;
-        j = col - 1;
-        while (i < 9 && j >= 0 && board[i][j].getText().equals(Character.toString(currentPlayer))) {
-            count++;
-            winningLine.add(new Point(i, j));
-            i++;
-            j--;
+        if (saved.state.size() != boardSize || saved.state.winLength() != winLength) {
+            throw new IOException("Saved match is for a " + saved.state.size() + "x" + saved.state.size()
+                    + " board with " + saved.state.winLength() + " in a row");
         }
-
-        return count >= 5 ? winningLine : Collections.emptyList();
-    }
-
-    public boolean isBoardFull() {
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (board[i][j].getText().isEmpty()) {
-                    return false;
-                }
-            }
+        gameWon = false; // 讀檔前的盤面不封存
+        resetBoard();
+        state.copyFrom(saved.state);
+        evaluator.reset(state);
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            moveHistory.add(cell);
+            gameLog.move(cell, state.get(cell));
         }
-        return true;
-    }
-
-    public void resetBoard() {
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                board[i][j].setText("");
-                board[i][j].setForeground(null);
-            }
+        int expected = state.moveCount() == 0 ? GameState.X : GameState.opponent(state.get(state.lastMove()));
+        if (state.toMove() != expected) {
+            gameLog.timeout(); // 存檔時已有一方逾時
         }
-        currentPlayer = 'X';
-        gameWon = false;
-        moveHistory.clear();
+        board.refresh();
+        currentPlayer = symbolOf(state.toMove());
+        playerXWins = saved.xWins;
+        playerOWins = saved.oWins;
+        noOneWin = saved.draws;
+        gameLog.score(playerXWins, playerOWins, noOneWin);
+        updateScore();
         statusBar.setText("Current Turn: " + currentPlayer);
-        resetTimer();
     }
 
     public void resetGame() {
         resetBoard();
         playerXWins = 0;
         playerOWins = 0;
+        gameLog.score(playerXWins, playerOWins, noOneWin);
         updateScore();
         JOptionPane.showMessageDialog(null, "遊戲結束! 請重新開始新的一局。");
     }
@@ -374,72 +490,179 @@ public class GomokuGame extends JFrame {
     }
 
     public Point suggestMove() {
-        int bestScore = Integer.MIN_VALUE;
-        Point bestMove = null;
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (board[i][j].getText().isEmpty()) {
-                    // 嘗試在這個位置下子
-                    board[i][j].setText(Character.toString(currentPlayer));
-                    int score = evaluateBoard();
-                    board[i][j].setText(""); // 恢復原狀
-
-                    // 更新最佳分數和位置
-                    if (score > bestScore) {
-                        bestScore = score;
-                        bestMove = new Point(i, j);
-                    }
-                }
+        GameState position = hintPosition();
+        boolean mcts = mctsHints; // 只讀一次，快取與引擎的選擇才會一致
+        SearchResult result = bookHint(position);
+        if (result == null && !mcts) {
+            result = analysisCache.get(position, hintDepth);
+        }
+        if (result == null) {
+            long ticket = mcts ? mctsEngine().nextSearch() : searchEngine.nextSearch();
+            result = search(position, hintBudget(), null, mcts, ticket);
+        }
+        lastSearch = result;
+        Metrics.global().hinted();
+        if (result.bestMove < 0) {
+            return null;
+        }
+        return new Point(state.row(result.bestMove), state.col(result.bestMove));
+    }
+
+    // 在背景執行緒搜尋目前局面的快照，每完成一層就把較好的提示送回 EDT
+    public void requestHint() {
+        cancelHint();
+        GameState position = hintPosition();
+        long key = position.hash();
+        boolean mcts = mctsHints; // 只讀一次，快取與引擎的選擇才會一致
+        SearchResult cached = bookHint(position);
+        if (cached == null && !mcts) {
+            cached = analysisCache.get(position, hintDepth);
+        }
+        if (cached != null) {
+            Metrics.global().hinted();
+            showHint(cached, key);
+            return;
+        }
+        long budget = hintBudget();
+        long ticket = mcts ? mctsEngine().nextSearch() : searchEngine.nextSearch(); // 排隊中被取消的搜尋一開始就會停下
+        hintTask = hintExecutor.submit(() -> {
+            SearchResult result = search(position, budget,
+                    partial -> SwingUtilities.invokeLater(() -> showHint(partial, key)), mcts, ticket);
+            lastSearch = result;
+            Metrics.global().hinted();
+            SwingUtilities.invokeLater(() -> showHint(result, key));
+        });
+    }
+
+    // MCTS 的分數是勝率，不與 alpha-beta 的結果共用快取
+    public SearchResult search(GameState position, long budget, Consumer<SearchResult> progress, boolean mcts,
+                               long ticket) {
+        if (mcts) {
+            return mctsEngine().search(position, Long.MAX_VALUE, budget, ticket);
+        }
+        SearchResult result = searchEngine.search(position, HINT_MAX_DEPTH, budget, progress, ticket);
+        if (!searchEngine.wasCancelled()) {
+            analysisCache.put(position, result);
+            if (budget >= HINT_TIME_MILLIS && Math.abs(result.score) < SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY) {
+                hintDepth = result.depth; // 找到勝負的搜尋會提早結束，不代表一般能搜到的深度
             }
         }
-        return bestMove;
+        return result;
     }
 
-    // 評估棋盤狀態的方法
-    public int evaluateBoard() {
-        // 簡單評分邏輯：越接近贏得局面的分數越高
-        int score = 0;
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9;j++) {
-                if (board[i][j].getText().equals(Character.toString(currentPlayer))) {
-                    score += evaluatePosition(i, j, currentPlayer);
-                } else if (board[i][j].getText().equals(Character.toString((currentPlayer == 'X') ? 'O' : 'X'))) {
-                    score -= evaluatePosition(i, j, (currentPlayer == 'X') ? 'O' : 'X');
-                }
+    public synchronized MctsEngine mctsEngine() {
+        if (mctsEngine == null) {
+            mctsEngine = new MctsEngine();
+        }
+        return mctsEngine;
+    }
+
+    // 開局庫內的局面直接給出書上的棋步，不必搜尋
+    public SearchResult bookHint(GameState position) {
+        if (openingBook == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        int move = openingBook.lookup(position);
+        return move < 0 ? null : new SearchResult(move, 0, 0, 0, System.nanoTime() - start);
+    }
+
+    public void showMetrics() {
+        JTextArea text = new JTextArea(Metrics.global().dump());
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JOptionPane.showMessageDialog(this, new JScrollPane(text), "Metrics", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    public void cancelHint() {
+        if (hintTask != null && !hintTask.isDone()) {
+            hintTask.cancel(false);
+            searchEngine.cancel();
+            if (mctsEngine != null) {
+                mctsEngine.cancel();
             }
         }
-        return score;
     }
 
-    // 評估單一位置分數的方法
-    public int evaluatePosition(int row, int col, char player) {
-        int score = 0;
+    public void showHint(SearchResult result, long key) {
+        if (gameWon || result.bestMove < 0 || key != hintPosition().hash()) {
+            return; // 局面已經改變，丟棄過時的提示
+        }
+        board.setHint(result.bestMove);
+    }
+
+    // 目前局面的快照，輪到 currentPlayer
+    public GameState hintPosition() {
+        GameState position = state.copy();
+        position.setToMove(stoneOf(currentPlayer));
+        return position;
+    }
+
+    public long hintBudget() {
+        // 不超過本回合剩餘時間，並保留一點餘裕
+        return Math.max(50, Math.min(HINT_TIME_MILLIS, timeRemaining * 1000L - 500));
+    }
 
-        // 檢查四個方向的連續子數
-        score += countContinuous(row, col, 0, 1, player); // 橫向
-        score += countContinuous(row, col, 1, 0, player); // 縱向
-        score += countContinuous(row, col, 1, 1, player); // 對角線
-        score += countContinuous(row, col, 1, -1, player); // 反對角線
+    // 評估棋盤狀態的方法
+    public int evaluateBoard() {
+        // 棋型評分：活四、衝四、活三等，隨落子增量維護，不需重掃棋盤
+        return evaluator.evaluate(state, stoneOf(currentPlayer));
+    }
 
-        return score;
+    // 評估單一位置分數的方法
+    public int evaluatePosition(int row, int col, char player) {
+        return HeuristicEvaluator.evaluatePosition(state, row, col, stoneOf(player));
     }
 
     // 計算某方向連續棋子的數量
     public int countContinuous(int row, int col, int dx, int dy, char player) {
-        int count = 0;
+        return HeuristicEvaluator.countContinuous(state, row, col, dx, dy, stoneOf(player));
+    }
+
+    // 棋型表只涵蓋部分連線長度，其餘用逐格掃描的評估
+    public static Supplier<Evaluator> evaluatorsFor(int winLength) {
+        return PatternEvaluator.supports(winLength) ? PatternEvaluator::new : HeuristicEvaluator::new;
+    }
 
-        int i = row + dx, j = col + dy;
-        while (i >= 0 && i < 9 && j >= 0 && j < 9 && board[i][j].getText().equals(Character.toString(player))) {
-            count++;
-            i += dx;
-            j += dy;
+    // 介面的 'X'/'O' 與 GameState 棋子編號互轉
+    public static int stoneOf(char player) {
+        return player == 'X' ? GameState.X : GameState.O;
+    }
+
+    public static char symbolOf(int stone) {
+        return stone == GameState.X ? 'X' : 'O';
+    }
+
+    @Override
+    public void dispose() {
+        timer.cancel(); // 共用時鐘不會隨視窗關閉，需自行取消倒數
+        // 搜尋執行緒池與置換表屬於這個視窗，關閉時一併釋放
+        hintExecutor.shutdownNow();
+        searchEngine.close();
+        if (mctsEngine != null) {
+            mctsEngine.close();
         }
-        return count;
+        if (archive != null) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                System.err.println("Cannot close archive: " + e.getMessage());
+            }
+            archive = null;
+        }
+        super.dispose();
     }
 
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(GomokuGame::new);
+        // 可用參數指定棋盤大小與連線長度，例如 15 5 或 19 5
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : GameState.DEFAULT_SIZE;
+        int length = args.length > 1 ? Integer.parseInt(args[1]) : GameState.DEFAULT_WIN_LENGTH;
+        SwingUtilities.invokeLater(() -> {
+            try {
+                new GomokuGame(size, length);
+            } catch (IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(null, e.getMessage(), "五子棋", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 }
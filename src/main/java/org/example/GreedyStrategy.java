@@ -0,0 +1,35 @@
+package org.example;
+
+/**
+ * The original one-ply hint: tries every empty cell and keeps the first one
+ * with the best {@link HeuristicEvaluator} score for the side to move.
+ */
+public final class GreedyStrategy implements MoveStrategy {
+
+    private final HeuristicEvaluator evaluator = new HeuristicEvaluator();
+
+    @Override
+    public String name() {
+        return "greedy";
+    }
+
+    @Override
+    public int chooseMove(GameState state) {
+        int player = state.toMove();
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = -1;
+        for (int cell = 0; cell < state.cells(); cell++) {
+            if (state.isEmpty(cell)) {
+                // 嘗試在這個位置下子
+                state.place(cell, player);
+                int score = evaluator.evaluate(state, player);
+                state.undo(); // 恢復原狀
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = cell;
+                }
+            }
+        }
+        return bestMove;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+/**
+ * The original hint heuristic on bitboards: every stone scores the length of
+ * its forward runs in the four directions, own stones minus the opponent's.
+ */
+public final class HeuristicEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(GameState state, int player) {
+        int score = 0;
+        int opponent = GameState.opponent(player);
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            int stone = state.get(cell);
+            if (stone == player) {
+                score += evaluatePosition(state, state.row(cell), state.col(cell), player);
+            } else if (stone == opponent) {
+                score -= evaluatePosition(state, state.row(cell), state.col(cell), opponent);
+            }
+        }
+        return score;
+    }
+
+    public static int evaluatePosition(GameState state, int row, int col, int player) {
+        int score = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            score += countContinuous(state, row, col, GameState.DR[dir], GameState.DC[dir], player);
+        }
+        return score;
+    }
+
+    // 計算某方向連續棋子的數量
+    public static int countContinuous(GameState state, int row, int col, int dx, int dy, int player) {
+        int count = 0;
+        int i = row + dx;
+        int j = col + dy;
+        while (state.isOnBoard(i, j) && state.isOccupiedBy(state.cell(i, j), player)) {
+            count++;
+            i += dx;
+            j += dy;
+        }
+        return count;
+    }
+}
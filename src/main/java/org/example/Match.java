@@ -0,0 +1,103 @@
+package org.example;
+
+/**
+ * One headless best-of series: a {@link GameState} plus the round and score
+ * rules of the Swing game. Not thread-safe; {@link MatchServer} serialises
+ * every command for a match through its own queue.
+ */
+public final class Match {
+
+    public static final int WINNING_GAMES = 3; // 先贏幾局拿下系列賽
+
+    private final int id;
+    private final GameState state;
+    private int xWins;
+    private int oWins;
+    private int draws;
+    private int winner = GameState.EMPTY; // 系列賽勝方，EMPTY 表示尚未結束
+
+    public Match(int id, int boardSize, int winLength) {
+        this.id = id;
+        this.state = new GameState(boardSize, winLength);
+    }
+
+    /** Resumes a saved series. */
+    public Match(int id, SavedMatch saved) {
+        this.id = id;
+        this.state = saved.state.copy();
+        this.xWins = saved.xWins;
+        this.oWins = saved.oWins;
+        this.draws = saved.draws;
+        if (xWins >= WINNING_GAMES || oWins >= WINNING_GAMES) {
+            winner = xWins >= WINNING_GAMES ? GameState.X : GameState.O;
+        }
+    }
+
+    public SavedMatch save() {
+        return new SavedMatch(state.copy(), xWins, oWins, draws);
+    }
+
+    /** Plays {@code cell} for the side to move and applies the round rules. */
+    public MoveOutcome play(int cell) {
+        if (winner != GameState.EMPTY || cell < 0 || cell >= state.cells() || !state.isEmpty(cell)) {
+            return MoveOutcome.ILLEGAL;
+        }
+        int player = state.toMove();
+        state.place(cell, player);
+        if (state.winningLine(cell) != WinLine.NONE) {
+            int wins = player == GameState.X ? ++xWins : ++oWins;
+            state.clear();
+            if (wins == WINNING_GAMES) {
+                winner = player;
+                return MoveOutcome.SERIES_WON;
+            }
+            return MoveOutcome.ROUND_WON;
+        }
+        if (state.isFull()) {
+            draws++;
+            state.clear();
+            return MoveOutcome.ROUND_DRAWN;
+        }
+        return MoveOutcome.CONTINUE;
+    }
+
+    /** Takes back the last move of the current round. */
+    public boolean undo() {
+        return winner == GameState.EMPTY && state.undo() >= 0;
+    }
+
+    /** The turn clock ran out: the opponent moves next. */
+    public void timeUp() {
+        if (winner == GameState.EMPTY) {
+            state.passTurn();
+        }
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public GameState state() {
+        return state;
+    }
+
+    public int xWins() {
+        return xWins;
+    }
+
+    public int oWins() {
+        return oWins;
+    }
+
+    public int draws() {
+        return draws;
+    }
+
+    public boolean isFinished() {
+        return winner != GameState.EMPTY;
+    }
+
+    public int winner() {
+        return winner;
+    }
+}
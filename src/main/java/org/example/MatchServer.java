@@ -0,0 +1,293 @@
+package org.example;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Headless server hosting many {@link Match}es on a small shared worker pool.
+ * Each match is an actor: its commands run one at a time from its own queue.
+ * Turn clocks of all matches are timeouts on one shared {@link TurnClock}.
+ */
+public final class MatchServer implements AutoCloseable {
+
+    public static final long DEFAULT_TURN_MILLIS = 15_000; // 與視窗版每回合 15 秒相同
+    private static final int DRAIN_BATCH = 64; // 每次最多連續處理的指令數，避免單一對局霸佔執行緒
+
+    private final ForkJoinPool workers;
+    private final TurnClock clock;
+    private final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final int boardSize;
+    private final int winLength;
+    private final long turnMillis;
+
+    private final LongAdder moves = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean closed;
+
+    // 一場對局與它的指令佇列
+    private static final class Session {
+        final Match match;
+        final Queue<Command> mailbox = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        TurnClock.Timeout turnTimer;
+        int turn; // 每次重設計時就加一，舊的逾時事件據此作廢
+
+        Session(Match match) {
+            this.match = match;
+        }
+    }
+
+    // 一筆指令與等待它的呼叫端；伺服器內部的指令沒有 result
+    private static final class Command {
+        final Runnable action;
+        final CompletableFuture<?> result;
+
+        Command(Runnable action, CompletableFuture<?> result) {
+            this.action = action;
+            this.result = result;
+        }
+
+        void fail(Throwable cause) {
+            if (result != null) {
+                result.completeExceptionally(cause);
+            }
+        }
+    }
+
+    public MatchServer(int threads, int boardSize, int winLength, long turnMillis) {
+        this(threads, boardSize, winLength, turnMillis, TurnClock.shared());
+    }
+
+    public MatchServer(int threads, int boardSize, int winLength, long turnMillis, TurnClock clock) {
+        this.workers = new ForkJoinPool(Math.max(1, threads), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.clock = clock;
+        this.boardSize = boardSize;
+        this.winLength = winLength;
+        this.turnMillis = turnMillis;
+    }
+
+    /** Opens a new match and starts X's clock; returns its id. */
+    public int createMatch() {
+        int id = nextId.getAndIncrement();
+        Session session = new Session(new Match(id, boardSize, winLength));
+        sessions.put(id, session);
+        submit(session, () -> restartClock(session), null);
+        return id;
+    }
+
+    public CompletableFuture<MoveOutcome> play(int matchId, int cell) {
+        Session session = session(matchId);
+        long submitted = System.nanoTime();
+        CompletableFuture<MoveOutcome> result = new CompletableFuture<>();
+        submit(session, () -> {
+            MoveOutcome outcome = session.match.play(cell);
+            if (outcome != MoveOutcome.ILLEGAL) {
+                moves.increment();
+                restartClock(session);
+                Metrics.global().serverMoveDone(submitted);
+            }
+            latency.record(System.nanoTime() - submitted);
+            result.complete(outcome);
+        }, result);
+        return result;
+    }
+
+    public CompletableFuture<Boolean> undo(int matchId) {
+        Session session = session(matchId);
+        return query(matchId, match -> {
+            boolean undone = match.undo();
+            if (undone) {
+                Metrics.global().undone();
+                restartClock(session);
+            }
+            return undone;
+        });
+    }
+
+    /** Runs {@code reader} in the match's queue, after all earlier commands. */
+    public <T> CompletableFuture<T> query(int matchId, Function<Match, T> reader) {
+        Session session = session(matchId);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submit(session, () -> result.complete(reader.apply(session.match)), result);
+        return result;
+    }
+
+    /** Closes a match and stops its clock. */
+    public void removeMatch(int matchId) {
+        Session session = sessions.remove(matchId);
+        if (session != null) {
+            submit(session, () -> cancelClock(session), null);
+        }
+    }
+
+    private Session session(int matchId) {
+        Session session = sessions.get(matchId);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown match: " + matchId);
+        }
+        return session;
+    }
+
+    // 指令失敗或伺服器已關閉時，以例外完成呼叫端的 result，不讓它永遠等下去
+    private void submit(Session session, Runnable action, CompletableFuture<?> result) {
+        Command command = new Command(action, result);
+        if (closed) {
+            command.fail(new IllegalStateException("Server closed"));
+            return;
+        }
+        session.mailbox.add(command);
+        if (session.scheduled.compareAndSet(false, true)) {
+            execute(session);
+        }
+    }
+
+    private void execute(Session session) {
+        try {
+            workers.execute(() -> drain(session));
+        } catch (RejectedExecutionException e) {
+            // 與 close 同時送出，伺服器已關閉：佇列中的指令不會再執行
+            session.scheduled.set(false);
+            IllegalStateException closedError = new IllegalStateException("Server closed", e);
+            Command command;
+            while ((command = session.mailbox.poll()) != null) {
+                command.fail(closedError);
+            }
+        }
+    }
+
+    private void drain(Session session) {
+        Command command;
+        int budget = DRAIN_BATCH;
+        while (budget-- > 0 && (command = session.mailbox.poll()) != null) {
+            try {
+                command.action.run();
+            } catch (RuntimeException e) {
+                // 單一指令失敗不影響同一對局後續指令
+                failures.increment();
+                command.fail(e);
+            }
+        }
+        session.scheduled.set(false);
+        if (!session.mailbox.isEmpty() && session.scheduled.compareAndSet(false, true)) {
+            execute(session);
+        }
+    }
+
+    // 只在該對局的佇列中呼叫
+    private void restartClock(Session session) {
+        cancelClock(session);
+        if (turnMillis <= 0 || session.match.isFinished()) {
+            return;
+        }
+        int turn = session.turn;
+        session.turnTimer = clock.schedule(() -> submit(session, () -> {
+            if (session.turn == turn) {
+                session.match.timeUp();
+                Metrics.global().timedOut();
+                restartClock(session);
+            }
+        }, null), turnMillis);
+    }
+
+    private void cancelClock(Session session) {
+        session.turn++;
+        if (session.turnTimer != null) {
+            session.turnTimer.cancel();
+            session.turnTimer = null;
+        }
+    }
+
+    public int matchCount() {
+        return sessions.size();
+    }
+
+    public long movesPlayed() {
+        return moves.sum();
+    }
+
+    public double movesPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds == 0 ? 0 : moves.sum() / seconds;
+    }
+
+    /** Commands that threw; their callers got the exception. */
+    public long failedCommands() {
+        return failures.sum();
+    }
+
+    /** Time from submitting a move until it has been applied, in nanoseconds. */
+    public LatencyHistogram moveLatency() {
+        return latency;
+    }
+
+    public String report() {
+        return String.format("matches=%d moves=%d moves/s=%.0f p50=%dus p99=%dus max=%dus",
+                matchCount(), movesPlayed(), movesPerSecond(),
+                latency.percentile(0.50) / 1000, latency.percentile(0.99) / 1000, latency.max() / 1000);
+    }
+
+    /**
+     * Stops accepting commands, lets queued ones finish and cancels every turn
+     * clock; commands sent afterwards fail with {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 工作執行緒已停，直接在這裡取消；時鐘為共用，只取消自己的逾時
+        sessions.values().forEach(this::cancelClock);
+    }
+
+    // 壓力測試：每場對局由隨機落子驅動到系列賽結束
+    public static void main(String[] args) throws InterruptedException {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Metrics.registerMBean();
+        try (MatchServer server = new MatchServer(threads, GameState.DEFAULT_SIZE, GameState.DEFAULT_WIN_LENGTH,
+                DEFAULT_TURN_MILLIS)) {
+            CompletableFuture<?>[] done = new CompletableFuture<?>[matches];
+            for (int i = 0; i < matches; i++) {
+                int id = server.createMatch();
+                done[i] = server.drive(id, new SplittableRandom(id));
+            }
+            CompletableFuture.allOf(done).join();
+            System.out.println(server.report());
+            System.out.print(Metrics.global().dump());
+        }
+    }
+
+    private CompletableFuture<Void> drive(int matchId, SplittableRandom random) {
+        return query(matchId, match -> randomEmpty(match.state(), random))
+                .thenCompose(cell -> play(matchId, cell))
+                .thenCompose(outcome -> outcome == MoveOutcome.SERIES_WON
+                        ? CompletableFuture.completedFuture(null)
+                        : drive(matchId, random));
+    }
+
+    private static int randomEmpty(GameState state, SplittableRandom random) {
+        int cell;
+        do {
+            cell = random.nextInt(state.cells());
+        } while (!state.isEmpty(cell));
+        return cell;
+    }
+}
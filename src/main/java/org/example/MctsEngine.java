@@ -0,0 +1,391 @@
+package org.example;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monte Carlo tree search with UCT. All workers grow one shared tree whose
+ * nodes live in preallocated arrays, capped at {@code maxNodes}; a visit is
+ * counted on the way down so concurrent descents spread out (virtual loss).
+ * Playouts are uniform random on each worker's own board and allocate nothing.
+ */
+public final class MctsEngine implements AutoCloseable {
+
+    public static final double DEFAULT_EXPLORATION = 1.4;
+    public static final int DEFAULT_MAX_NODES = Integer.getInteger("gomoku.mctsNodes", 1 << 19);
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+
+    private final ForkJoinPool pool; // 單執行緒時為 null，直接在呼叫端執行
+    private final int threads;
+    private final double exploration;
+    private final int maxNodes;
+    private final long seed;
+    // 節點以陣列儲存，索引即節點編號，0 為根
+    private final int[] moves; // 進入此節點的落子
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final AtomicLongArray stats; // 造訪次數 << 32 | 落子方得分（勝 2、和 1）
+    private final AtomicIntegerArray expansion; // 0 未展開、1 展開中、2 已展開
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private final AtomicLong playouts = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicInteger workerIds = new AtomicInteger();
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+    private final ThreatSolver threats = new ThreatSolver();
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final SearchTickets tickets = new SearchTickets();
+    private volatile long lastTicket;
+
+    // 每個執行緒自己的棋盤與暫存陣列，配置一次後重複使用
+    private final class Worker {
+        final SplittableRandom random = new SplittableRandom(seed + workerIds.getAndIncrement() * 0x9E3779B97F4A7C15L);
+        final CandidateSet candidates = new CandidateSet();
+        GameState state;
+        int[] path = new int[0];
+        int[] cells = new int[0];
+
+        void reset(GameState root) {
+            if (state == null || state.size() != root.size() || state.winLength() != root.winLength()) {
+                state = new GameState(root.size(), root.winLength());
+                path = new int[root.cells() + 1];
+                cells = new int[root.cells()];
+            }
+            state.copyFrom(root);
+            candidates.reset(state);
+        }
+    }
+
+    public MctsEngine() {
+        this(ParallelSearch.defaultThreads(), DEFAULT_EXPLORATION, DEFAULT_MAX_NODES, 1);
+    }
+
+    public MctsEngine(int threads, double exploration, int maxNodes, long seed) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("Need room for at least two nodes: " + maxNodes);
+        }
+        this.threads = Math.max(1, threads);
+        this.pool = this.threads == 1 ? null : new ForkJoinPool(this.threads);
+        this.exploration = exploration;
+        this.maxNodes = maxNodes;
+        this.seed = seed;
+        moves = new int[maxNodes];
+        firstChild = new int[maxNodes];
+        childCount = new int[maxNodes];
+        stats = new AtomicLongArray(maxNodes);
+        expansion = new AtomicIntegerArray(maxNodes);
+    }
+
+    public SearchResult search(GameState position, long timeMillis) {
+        return search(position, Long.MAX_VALUE, timeMillis);
+    }
+
+    /**
+     * Runs playouts until {@code maxPlayouts} are done, the time runs out or
+     * {@link #cancel()} is called. The score is the win rate of the chosen
+     * move scaled to -1000..1000, unless the threat solver proves a win first.
+     */
+    public SearchResult search(GameState position, long maxPlayouts, long timeMillis) {
+        return search(position, maxPlayouts, timeMillis, nextSearch());
+    }
+
+    /** Number for a search that starts later; {@link #cancel(long)} also stops it before it starts. */
+    public long nextSearch() {
+        return tickets.issue();
+    }
+
+    /** As {@link #search(GameState, long, long)} under a ticket from {@link #nextSearch()}. */
+    public synchronized SearchResult search(GameState position, long maxPlayouts, long timeMillis, long ticket) {
+        long start = System.nanoTime();
+        GameState root = position.copy();
+        lastTicket = ticket;
+        tickets.start(ticket, stop);
+        SearchResult proof = threats.findWin(root); // 隨機模擬看不出連續威脅，先交給求解器
+        Metrics.global().threatWork(threats.nodes());
+        if (proof != null) {
+            Metrics.global().searched(proof);
+            return proof;
+        }
+        // 子節點在展開時才清空，這裡只需重設根
+        moves[0] = -1;
+        childCount[0] = 0;
+        stats.set(0, 0L);
+        expansion.set(0, 0);
+        nodeCount.set(1);
+        playouts.set(0);
+        maxDepth.set(0);
+        long deadline = start + timeMillis * 1_000_000L;
+        if (pool == null) {
+            run(root, maxPlayouts, deadline);
+        } else {
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                tasks[i] = pool.submit(() -> run(root, maxPlayouts, deadline));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        SearchResult result = best(root, System.nanoTime() - start);
+        Metrics.global().searched(result);
+        return result;
+    }
+
+    private void run(GameState root, long maxPlayouts, long deadline) {
+        Worker worker = workers.get();
+        worker.reset(root);
+        while (!stop.get() && System.nanoTime() < deadline && playouts.getAndIncrement() < maxPlayouts) {
+            iterate(worker);
+        }
+    }
+
+    // 選擇、展開、模擬、回傳一輪
+    private void iterate(Worker worker) {
+        GameState state = worker.state;
+        int[] path = worker.path;
+        int depth = 0;
+        int node = 0;
+        path[0] = 0;
+        stats.getAndAdd(0, 1L << 32);
+        int winner = -1; // 落子直接分出勝負時不必模擬
+        while (true) {
+            int phase = expansion.get(node);
+            if (phase == 0 && !expand(node, worker) || phase == EXPANDING || childCount[node] == 0) {
+                break;
+            }
+            int child = select(node);
+            long before = stats.getAndAdd(child, 1L << 32); // 結果出來前先算一次落敗，其他執行緒會改走別處
+            int cell = moves[child];
+            int player = state.toMove();
+            boolean wins = state.wouldWin(cell, player);
+            state.place(cell, player);
+            worker.candidates.onPlace(state, cell);
+            path[++depth] = child;
+            node = child;
+            if (wins) {
+                winner = player;
+                break;
+            }
+            if (state.isFull()) {
+                winner = GameState.EMPTY;
+                break;
+            }
+            if (before >>> 32 == 0) {
+                break; // 新節點先模擬一次，下次經過才展開
+            }
+        }
+        if (winner < 0) {
+            winner = playout(worker);
+        }
+        // 每一層的得分屬於走進該節點的一方
+        for (int d = depth; d >= 0; d--) {
+            int mover = d == 0 ? GameState.opponent(worker.state.toMove()) : worker.state.get(moves[path[d]]);
+            long reward = winner == GameState.EMPTY ? 1 : winner == mover ? 2 : 0;
+            if (reward != 0) {
+                stats.getAndAdd(path[d], reward);
+            }
+            if (d > 0) {
+                worker.candidates.onUndo(state, state.undo());
+            }
+        }
+        maxDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    // 只有搶到展開權的執行緒建立子節點；節點用完時此節點永遠當葉子
+    private boolean expand(int node, Worker worker) {
+        if (!expansion.compareAndSet(node, 0, EXPANDING)) {
+            return expansion.get(node) == EXPANDED;
+        }
+        GameState state = worker.state;
+        int[] cells = worker.cells;
+        int count = worker.candidates.copyTo(cells);
+        if (count == 0 && state.moveCount() == 0) {
+            cells[count++] = state.cell(state.size() / 2, state.size() / 2);
+        }
+        count = forced(state, cells, count);
+        int first = allocate(count);
+        if (first < 0) {
+            childCount[node] = 0;
+            expansion.set(node, EXPANDED);
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            int child = first + i;
+            moves[child] = cells[i];
+            childCount[child] = 0;
+            stats.set(child, 0L);
+            expansion.set(child, 0);
+        }
+        firstChild[node] = first;
+        childCount[node] = count;
+        expansion.set(node, EXPANDED); // 之後讀到 EXPANDED 的執行緒也看得到上面的寫入
+        return true;
+    }
+
+    // 能連五就只留這一步，對手有連五就只留擋點
+    private static int forced(GameState state, int[] cells, int count) {
+        int player = state.toMove();
+        int opponent = GameState.opponent(player);
+        int blocks = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            if (state.wouldWin(cell, player)) {
+                cells[0] = cell;
+                return 1;
+            }
+            if (state.wouldWin(cell, opponent)) {
+                cells[i] = cells[blocks];
+                cells[blocks++] = cell;
+            }
+        }
+        return blocks > 0 ? blocks : count;
+    }
+
+    private int allocate(int count) {
+        while (true) {
+            int used = nodeCount.get();
+            if (used + count > maxNodes) {
+                return -1;
+            }
+            if (nodeCount.compareAndSet(used, used + count)) {
+                return used;
+            }
+        }
+    }
+
+    private int select(int node) {
+        int first = firstChild[node];
+        int end = first + childCount[node];
+        double logVisits = Math.log(Math.max(1, stats.get(node) >>> 32));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < end; child++) {
+            long s = stats.get(child);
+            long visits = s >>> 32;
+            if (visits == 0) {
+                return child;
+            }
+            double value = (s & 0xFFFFFFFFL) / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // 從空格清單隨機抽子直到分出勝負或下滿，結束後全部悔回
+    private int playout(Worker worker) {
+        GameState state = worker.state;
+        int[] cells = worker.cells;
+        int empty = 0;
+        for (int cell = 0; cell < state.cells(); cell++) {
+            if (state.isEmpty(cell)) {
+                cells[empty++] = cell;
+            }
+        }
+        int placed = 0;
+        int winner = GameState.EMPTY;
+        while (empty > 0) {
+            int i = worker.random.nextInt(empty);
+            int cell = cells[i];
+            cells[i] = cells[--empty];
+            int player = state.toMove();
+            boolean wins = state.wouldWin(cell, player);
+            state.place(cell, player);
+            placed++;
+            if (wins) {
+                winner = player;
+                break;
+            }
+        }
+        for (int i = 0; i < placed; i++) {
+            state.undo();
+        }
+        return winner;
+    }
+
+    // 選造訪最多的子節點，比勝率穩定
+    private SearchResult best(GameState root, long elapsed) {
+        long done = Math.min(playouts.get(), stats.get(0) >>> 32);
+        if (expansion.get(0) != EXPANDED || childCount[0] == 0) {
+            int move = root.isFull() ? -1 : fallback(root);
+            return new SearchResult(move, 0, 0, done, elapsed);
+        }
+        int best = firstChild[0];
+        for (int child = best + 1; child < firstChild[0] + childCount[0]; child++) {
+            if (stats.get(child) >>> 32 > stats.get(best) >>> 32) {
+                best = child;
+            }
+        }
+        long s = stats.get(best);
+        long visits = Math.max(1, s >>> 32);
+        int score = (int) Math.round(((s & 0xFFFFFFFFL) / (double) visits - 1) * 1000);
+        return new SearchResult(moves[best], score, maxDepth.get(), done, elapsed);
+    }
+
+    // 時間太短連根都沒展開時，任選一個空格
+    private static int fallback(GameState root) {
+        int center = root.cell(root.size() / 2, root.size() / 2);
+        if (root.isEmpty(center)) {
+            return center;
+        }
+        for (int cell = 0; cell < root.cells(); cell++) {
+            if (root.isEmpty(cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /** Stops the running search and any already numbered; it answers from the playouts done so far. */
+    public void cancel() {
+        tickets.cancelAll(stop);
+    }
+
+    /** Stops the search numbered {@code ticket}, whether it is running or not started yet. */
+    public void cancel(long ticket) {
+        tickets.cancel(ticket, stop);
+    }
+
+    public boolean wasCancelled() {
+        return lastTicket != 0 && tickets.isCancelled(lastTicket);
+    }
+
+    /** Nodes the last search used, at most {@link #maxNodes()}. */
+    public int nodesUsed() {
+        return nodeCount.get();
+    }
+
+    public int maxNodes() {
+        return maxNodes;
+    }
+
+    public double exploration() {
+        return exploration;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
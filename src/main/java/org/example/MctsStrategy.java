@@ -0,0 +1,34 @@
+package org.example;
+
+/** Single-threaded {@link MctsEngine} with a playout budget, for tournaments. */
+public final class MctsStrategy implements MoveStrategy {
+
+    private final MctsEngine engine;
+    private final int playouts;
+    private final long timeMillis;
+
+    public MctsStrategy(int playouts, long timeMillis) {
+        this(new MctsEngine(1, MctsEngine.DEFAULT_EXPLORATION, Math.max(2, playouts * 4), 1), playouts, timeMillis);
+    }
+
+    public MctsStrategy(MctsEngine engine, int playouts, long timeMillis) {
+        this.engine = engine;
+        this.playouts = playouts;
+        this.timeMillis = timeMillis;
+    }
+
+    @Override
+    public String name() {
+        return "mcts-" + playouts;
+    }
+
+    @Override
+    public int chooseMove(GameState state) {
+        return engine.search(state, playouts, timeMillis).bestMove;
+    }
+
+    @Override
+    public void close() {
+        engine.close();
+    }
+}
@@ -0,0 +1,316 @@
+package org.example;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters and latency histograms for the game and the AI.
+ * Counters are {@link LongAdder}s and latencies {@link LatencyHistogram}s,
+ * so recording never locks; the search adds its node counts once per search
+ * rather than per node. Turn off with {@code -Dgomoku.metrics=false}.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("gomoku.metrics"));
+    public static final String OBJECT_NAME = "org.example:type=Metrics";
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    final LongAdder moves = new LongAdder();
+    final LongAdder serverMoves = new LongAdder(); // MatchServer 的對局，與視窗版分開統計
+    final LongAdder undos = new LongAdder();
+    final LongAdder resets = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder hints = new LongAdder();
+    final LongAdder searches = new LongAdder();
+    final LongAdder searchNodes = new LongAdder();
+    final LongAdder threatNodes = new LongAdder();
+    final LongAdder evaluations = new LongAdder();
+    final LongAdder winChecks = new LongAdder(); // 介面每步一次，與 winCheckLatency 對應
+    final LongAdder searchWinChecks = new LongAdder(); // 搜尋樹內每個節點的檢查
+    // 以下單位皆為奈秒
+    final LatencyHistogram moveLatency = new LatencyHistogram();
+    final LatencyHistogram serverMoveLatency = new LatencyHistogram();
+    final LatencyHistogram winCheckLatency = new LatencyHistogram();
+    final LatencyHistogram searchLatency = new LatencyHistogram();
+
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /** Registers {@link #global()} with the platform MBean server; repeated calls are harmless. */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // 已註冊過
+        } catch (JMException e) {
+            System.err.println("Cannot register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /** Start time for a later {@code *Done(start)} call. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /** A move was handled by the view, from click to win check. */
+    public void moveDone(long start) {
+        if (ENABLED) {
+            moves.increment();
+            moveLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /** A move was applied by {@link MatchServer}, from submitting it to its queue. */
+    public void serverMoveDone(long start) {
+        if (ENABLED) {
+            serverMoves.increment();
+            serverMoveLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    public void winCheckDone(long start) {
+        if (ENABLED) {
+            winChecks.increment();
+            winCheckLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    public void undone() {
+        if (ENABLED) {
+            undos.increment();
+        }
+    }
+
+    public void boardReset() {
+        if (ENABLED) {
+            resets.increment();
+        }
+    }
+
+    public void timedOut() {
+        if (ENABLED) {
+            timeouts.increment();
+        }
+    }
+
+    /** A hint was answered, from the book, the cache or a search. */
+    public void hinted() {
+        if (ENABLED) {
+            hints.increment();
+        }
+    }
+
+    /** One finished search as seen by its caller. */
+    public void searched(SearchResult result) {
+        if (ENABLED) {
+            searches.increment();
+            searchLatency.record(result.elapsedNanos);
+        }
+    }
+
+    /** Work done by one engine during a search; called once per search and engine. */
+    public void searchWork(long nodes, long evaluated, long winChecked) {
+        if (ENABLED) {
+            searchNodes.add(nodes);
+            evaluations.add(evaluated);
+            searchWinChecks.add(winChecked);
+        }
+    }
+
+    public void threatWork(long nodes) {
+        if (ENABLED) {
+            threatNodes.add(nodes);
+        }
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public long getServerMoves() {
+        return serverMoves.sum();
+    }
+
+    @Override
+    public long getUndos() {
+        return undos.sum();
+    }
+
+    @Override
+    public long getResets() {
+        return resets.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getHints() {
+        return hints.sum();
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    @Override
+    public long getSearchNodes() {
+        return searchNodes.sum();
+    }
+
+    @Override
+    public long getThreatNodes() {
+        return threatNodes.sum();
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public long getWinChecks() {
+        return winChecks.sum();
+    }
+
+    @Override
+    public long getSearchWinChecks() {
+        return searchWinChecks.sum();
+    }
+
+    @Override
+    public long getMoveP50Micros() {
+        return moveLatency.percentile(0.50) / 1000;
+    }
+
+    @Override
+    public long getMoveP99Micros() {
+        return moveLatency.percentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getServerMoveP50Micros() {
+        return serverMoveLatency.percentile(0.50) / 1000;
+    }
+
+    @Override
+    public long getServerMoveP99Micros() {
+        return serverMoveLatency.percentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getWinCheckP99Micros() {
+        return winCheckLatency.percentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getSearchP50Micros() {
+        return searchLatency.percentile(0.50) / 1000;
+    }
+
+    @Override
+    public long getSearchP99Micros() {
+        return searchLatency.percentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getTimerDriftP99Micros() {
+        TurnClock clock = TurnClock.sharedIfStarted();
+        return clock == null ? 0 : clock.drift().percentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getTimerCallbackP99Micros() {
+        TurnClock clock = TurnClock.sharedIfStarted();
+        return clock == null ? 0 : clock.callbacks().percentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getAnalysisCacheHits() {
+        AnalysisCache cache = AnalysisCache.sharedIfCreated();
+        return cache == null ? 0 : cache.hits();
+    }
+
+    @Override
+    public long getAnalysisCacheMisses() {
+        AnalysisCache cache = AnalysisCache.sharedIfCreated();
+        return cache == null ? 0 : cache.misses();
+    }
+
+    @Override
+    public double getAnalysisCacheHitRatio() {
+        AnalysisCache cache = AnalysisCache.sharedIfCreated();
+        return cache == null ? 0 : cache.hitRatio();
+    }
+
+    @Override
+    public void reset() {
+        moves.reset();
+        serverMoves.reset();
+        undos.reset();
+        resets.reset();
+        timeouts.reset();
+        hints.reset();
+        searches.reset();
+        searchNodes.reset();
+        threatNodes.reset();
+        evaluations.reset();
+        winChecks.reset();
+        searchWinChecks.reset();
+        moveLatency.reset();
+        serverMoveLatency.reset();
+        winCheckLatency.reset();
+        searchLatency.reset();
+    }
+
+    /** Plain-text report, one metric per line. */
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        counter(out, "moves", moves);
+        counter(out, "server.moves", serverMoves);
+        counter(out, "undos", undos);
+        counter(out, "resets", resets);
+        counter(out, "timeouts", timeouts);
+        counter(out, "hints", hints);
+        counter(out, "searches", searches);
+        counter(out, "search.nodes", searchNodes);
+        counter(out, "threat.nodes", threatNodes);
+        counter(out, "evaluations", evaluations);
+        counter(out, "win.checks", winChecks);
+        counter(out, "search.win.checks", searchWinChecks);
+        latency(out, "move", moveLatency);
+        latency(out, "server.move", serverMoveLatency);
+        latency(out, "win.check", winCheckLatency);
+        latency(out, "search", searchLatency);
+        TurnClock clock = TurnClock.sharedIfStarted();
+        if (clock != null) {
+            latency(out, "timer.drift", clock.drift());
+            latency(out, "timer.callback", clock.callbacks());
+        }
+        AnalysisCache cache = AnalysisCache.sharedIfCreated();
+        if (cache != null) {
+            out.append(cache).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, LongAdder adder) {
+        out.append(name).append(' ').append(adder.sum()).append('\n');
+    }
+
+    private static void latency(StringBuilder out, String name, LatencyHistogram histogram) {
+        out.append(String.format("%s count=%d p50=%dus p99=%dus max=%dus%n", name, histogram.count(),
+                histogram.percentile(0.50) / 1000, histogram.percentile(0.99) / 1000, histogram.max() / 1000));
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+/** JMX view of {@link Metrics}; latencies are in microseconds. */
+public interface MetricsMXBean {
+
+    long getMoves();
+
+    long getServerMoves();
+
+    long getUndos();
+
+    long getResets();
+
+    long getTimeouts();
+
+    long getHints();
+
+    long getSearches();
+
+    long getSearchNodes();
+
+    long getThreatNodes();
+
+    long getEvaluations();
+
+    long getWinChecks();
+
+    long getSearchWinChecks();
+
+    long getMoveP50Micros();
+
+    long getMoveP99Micros();
+
+    long getServerMoveP50Micros();
+
+    long getServerMoveP99Micros();
+
+    long getWinCheckP99Micros();
+
+    long getSearchP50Micros();
+
+    long getSearchP99Micros();
+
+    long getTimerDriftP99Micros();
+
+    long getTimerCallbackP99Micros();
+
+    long getAnalysisCacheHits();
+
+    long getAnalysisCacheMisses();
+
+    double getAnalysisCacheHitRatio();
+
+    /** The same text as {@link Metrics#dump()}. */
+    String dump();
+
+    void reset();
+}
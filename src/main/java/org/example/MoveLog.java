@@ -0,0 +1,101 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Primitive move list storing each cell in the fewest bytes that fit the
+ * board: one byte up to 16x16, two up to 256x256, three beyond that.
+ * The encoded bytes are exactly what {@link GameArchive} writes to disk.
+ */
+public final class MoveLog {
+
+    private final int width; // 每步佔用的位元組數
+    private byte[] bytes;
+    private int size;
+
+    public MoveLog(int cells) {
+        this.width = bytesPerMove(cells);
+        this.bytes = new byte[width * Math.min(cells, 64)];
+    }
+
+    public static int bytesPerMove(int cells) {
+        if (cells <= 1 << 8) {
+            return 1;
+        }
+        return cells <= 1 << 16 ? 2 : 3;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public void add(int cell) {
+        if ((size + 1) * width > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(width, bytes.length * 2));
+        }
+        int at = size * width;
+        for (int b = 0; b < width; b++) {
+            bytes[at + b] = (byte) (cell >>> (8 * b));
+        }
+        size++;
+    }
+
+    /** Removes and returns the last move, or -1 if the log is empty. */
+    public int removeLast() {
+        if (size == 0) {
+            return -1;
+        }
+        size--;
+        return decode(bytes, size * width, width);
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + size);
+        }
+        return decode(bytes, index * width, width);
+    }
+
+    public int last() {
+        return size == 0 ? -1 : get(size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Number of bytes {@link #writeTo} produces. */
+    public int encodedLength() {
+        return size * width;
+    }
+
+    public void writeTo(ByteBuffer out) {
+        out.put(bytes, 0, size * width);
+    }
+
+    static int decode(byte[] bytes, int offset, int width) {
+        int cell = 0;
+        for (int b = 0; b < width; b++) {
+            cell |= (bytes[offset + b] & 0xFF) << (8 * b);
+        }
+        return cell;
+    }
+
+    // 直接從映射的緩衝區讀取，不複製
+    static int decode(ByteBuffer buffer, int offset, int width) {
+        int cell = 0;
+        for (int b = 0; b < width; b++) {
+            cell |= (buffer.get(offset + b) & 0xFF) << (8 * b);
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example;
+
+/**
+ * Result of applying one move to a {@link Match}.
+ */
+public enum MoveOutcome {
+    ILLEGAL,
+    CONTINUE,
+    ROUND_WON,
+    ROUND_DRAWN,
+    SERIES_WON
+}
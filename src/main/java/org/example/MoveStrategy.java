@@ -0,0 +1,19 @@
+package org.example;
+
+/**
+ * Picks a move for the side to move. Implementations may keep per-instance
+ * scratch state and are used by one thread at a time; {@code state} must be
+ * left as it was found.
+ */
+public interface MoveStrategy extends AutoCloseable {
+
+    String name();
+
+    /** An empty cell to play, or -1 if there is none. */
+    int chooseMove(GameState state);
+
+    /** Releases threads or other resources the strategy holds; most hold none. */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,236 @@
+package org.example;
+
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Book moves for the first plies, keyed by the Zobrist hash of the
+ * {@link CanonicalBoard} and stored in its frame, so one entry serves all
+ * eight symmetric positions. The file is a sorted key array plus a move
+ * array, memory-mapped and binary-searched in place.
+ */
+public final class OpeningBook {
+
+    private static final int MAGIC = 0x474D4B42; // "GMKB"
+    private static final int VERSION = 2; // 2：鍵值改為 CanonicalBoard 的 Zobrist，舊版書不再相容
+    private static final int HEADER = 24; // magic, version, size, winLength, maxPly, count
+
+    private final int size;
+    private final int winLength;
+    private final int maxPly;
+    private final LongBuffer keys;
+    private final IntBuffer moves; // 標準方向下的棋步
+
+    private OpeningBook(int size, int winLength, int maxPly, LongBuffer keys, IntBuffer moves) {
+        this.size = size;
+        this.winLength = winLength;
+        this.maxPly = maxPly;
+        this.keys = keys;
+        this.moves = moves;
+    }
+
+    public static OpeningBook load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an opening book of version " + VERSION + ": " + file);
+            }
+            int count = buffer.getInt(20);
+            if (buffer.limit() != HEADER + count * 12L) {
+                throw new IOException("Truncated opening book: " + file);
+            }
+            LongBuffer keys = buffer.slice(HEADER, count * 8).asLongBuffer();
+            IntBuffer moves = buffer.slice(HEADER + count * 8, count * 4).asIntBuffer();
+            return new OpeningBook(buffer.getInt(8), buffer.getInt(12), buffer.getInt(16), keys, moves);
+        }
+    }
+
+    /** Loads {@code file} if it exists; a missing or unreadable book is simply not used. */
+    public static OpeningBook loadIfPresent(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return load(file);
+        } catch (IOException e) {
+            System.err.println("Cannot load opening book: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** The book move for the side to move, or -1 when the position is not in book. */
+    public int lookup(GameState state) {
+        if (state.size() != size || state.winLength() != winLength || state.moveCount() >= maxPly) {
+            return -1;
+        }
+        CanonicalBoard canonical = CanonicalBoard.of(state);
+        int index = find(canonical.zobrist());
+        if (index < 0) {
+            return -1;
+        }
+        int move = canonical.toOriginal(moves.get(index));
+        return state.isEmpty(move) ? move : -1; // 雜湊碰撞時不給出非法棋步
+    }
+
+    private int find(long key) {
+        int low = 0;
+        int high = keys.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = keys.get(mid);
+            if (value < key) {
+                low = mid + 1;
+            } else if (value > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public int entries() {
+        return keys.limit();
+    }
+
+    public int maxPly() {
+        return maxPly;
+    }
+
+    /** Collects move statistics from finished games and writes the book file. */
+    public static final class Builder {
+        private final int size;
+        private final int winLength;
+        private final int maxPly;
+        private final int minGames;
+        // 標準局面 -> 標準方向棋步 -> {局數, 積分}（勝 2、和 1、負 0）
+        private final Map<Long, Map<Integer, int[]>> stats = new HashMap<>();
+
+        public Builder(int size, int winLength, int maxPly, int minGames) {
+            this.size = size;
+            this.winLength = winLength;
+            this.maxPly = maxPly;
+            this.minGames = minGames;
+        }
+
+        /** Adds the opening of a finished game; {@code winner} is EMPTY for a draw. */
+        public void add(GameState finished, int winner) {
+            if (finished.size() != size || finished.winLength() != winLength) {
+                return;
+            }
+            GameState position = new GameState(size, winLength);
+            for (int i = 0; i < Math.min(maxPly, finished.moveCount()); i++) {
+                int cell = finished.moveAt(i);
+                int player = finished.get(cell);
+                position.setToMove(player);
+                CanonicalBoard canonical = CanonicalBoard.of(position);
+                int[] record = stats.computeIfAbsent(canonical.zobrist(), k -> new HashMap<>())
+                        .computeIfAbsent(canonical.toCanonical(cell), k -> new int[2]);
+                record[0]++;
+                record[1] += winner == player ? 2 : winner == GameState.EMPTY ? 1 : 0;
+                position.place(cell, player);
+            }
+        }
+
+        public void addArchive(GameArchive archive) throws IOException {
+            archive.forEach(0, game -> add(game.replay(), game.winner));
+        }
+
+        /** Writes the book; returns the number of positions kept. */
+        public int write(Path file) throws IOException {
+            TreeMap<Long, Integer> book = new TreeMap<>();
+            for (Map.Entry<Long, Map<Integer, int[]>> position : stats.entrySet()) {
+                int bestMove = -1;
+                long bestPoints = -1;
+                int bestGames = 0;
+                for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+                    int games = move.getValue()[0];
+                    int points = move.getValue()[1];
+                    if (games < minGames) {
+                        continue;
+                    }
+                    // 以平均積分比較，交叉相乘避免浮點數；平手時選下過較多次的
+                    long left = (long) points * Math.max(1, bestGames);
+                    long right = bestPoints * games;
+                    if (bestMove < 0 || left > right || left == right && games > bestGames) {
+                        bestMove = move.getKey();
+                        bestPoints = points;
+                        bestGames = games;
+                    }
+                }
+                if (bestMove >= 0) {
+                    book.put(position.getKey(), bestMove);
+                }
+            }
+            try (OutputStream file0 = Files.newOutputStream(file);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file0))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(size);
+                out.writeInt(winLength);
+                out.writeInt(maxPly);
+                out.writeInt(book.size());
+                for (long key : book.keySet()) {
+                    out.writeLong(key);
+                }
+                for (int move : book.values()) {
+                    out.writeInt(move);
+                }
+            }
+            return book.size();
+        }
+    }
+
+    // 離線建書：java org.example.OpeningBook <輸出檔> [封存目錄 | 自我對弈局數]
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : "opening.book");
+        Builder builder = new Builder(GameState.DEFAULT_SIZE, GameState.DEFAULT_WIN_LENGTH, 8, 2);
+        if (args.length > 1 && Files.isDirectory(Paths.get(args[1]))) {
+            try (GameArchive archive = GameArchive.open(Paths.get(args[1]))) {
+                builder.addArchive(archive);
+            }
+        } else {
+            int games = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+            selfPlay(builder, games);
+        }
+        System.out.println(builder.write(out) + " positions written to " + out);
+    }
+
+    // 兩個淺層搜尋對弈，開局前兩手隨機，讓書涵蓋常見的變化；
+    // 每個工作者重複使用同一個引擎，置換表與威脅快取不必每局重建
+    private static void selfPlay(Builder builder, int games) {
+        int workers = Math.min(games, Runtime.getRuntime().availableProcessors());
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            SearchStrategy engine = new SearchStrategy(4, 50);
+            for (int game = worker; game < games; game += workers) {
+                RandomStrategy opening = new RandomStrategy(game);
+                GameState state = new GameState();
+                int winner = GameState.EMPTY;
+                while (!state.isFull()) {
+                    int cell = state.moveCount() < 2 ? opening.chooseMove(state) : engine.chooseMove(state);
+                    state.place(cell);
+                    if (state.winningLine(cell) != WinLine.NONE) {
+                        winner = state.get(cell);
+                        break;
+                    }
+                }
+                synchronized (builder) {
+                    builder.add(state, winner);
+                }
+            }
+        });
+    }
+}
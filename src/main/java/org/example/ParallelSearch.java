@@ -0,0 +1,141 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Lazy SMP: every worker runs the full iterative deepening on its own copy of
+ * the position, sharing one lock-free {@link TranspositionTable}. Helpers are
+ * de-synchronised by start depth and move-order noise; the deepest result wins.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final SearchEngine[] engines;
+    private final TranspositionTable table;
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final ThreatSolver threats = new ThreatSolver();
+    private final SearchTickets tickets = new SearchTickets();
+    private volatile long lastTicket;
+
+    public ParallelSearch(int threads, TranspositionTable table, Supplier<Evaluator> evaluators) {
+        int workers = Math.max(1, threads);
+        this.pool = new ForkJoinPool(workers);
+        this.table = table;
+        this.engines = new SearchEngine[workers];
+        for (int i = 0; i < workers; i++) {
+            engines[i] = new SearchEngine(evaluators.get(), table, stop, true);
+            if (i > 0) {
+                engines[i].randomizeOrdering(i);
+                engines[i].setFirstDepth(1 + (i & 1));
+            }
+        }
+    }
+
+    public static int defaultThreads() {
+        return Integer.getInteger("gomoku.searchThreads", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Searches with all workers until the main worker completes {@code maxDepth},
+     * the time runs out or {@link #cancel()} is called.
+     */
+    public SearchResult search(GameState position, int maxDepth, long timeMillis) {
+        return search(position, maxDepth, timeMillis, null);
+    }
+
+    /** As {@link #search(GameState, int, long)}; the main worker reports each depth. */
+    public SearchResult search(GameState position, int maxDepth, long timeMillis,
+                               Consumer<SearchResult> progress) {
+        return search(position, maxDepth, timeMillis, progress, nextSearch());
+    }
+
+    /**
+     * Number for a search that will start later, e.g. on another thread;
+     * {@link #cancel(long)} with it also stops the search before it starts.
+     */
+    public long nextSearch() {
+        return tickets.issue();
+    }
+
+    /** As {@link #search(GameState, int, long, Consumer)} under a ticket from {@link #nextSearch()}. */
+    public synchronized SearchResult search(GameState position, int maxDepth, long timeMillis,
+                                            Consumer<SearchResult> progress, long ticket) {
+        long start = System.nanoTime();
+        GameState root = position.copy();
+        lastTicket = ticket;
+        tickets.start(ticket, stop);
+        table.newSearch();
+        SearchResult proof = threats.findWin(root); // 有連續威脅必勝就不必動用所有執行緒
+        Metrics.global().threatWork(threats.nodes());
+        if (proof != null) {
+            Metrics.global().searched(proof);
+            if (progress != null) {
+                progress.accept(proof);
+            }
+            return proof;
+        }
+
+        List<ForkJoinTask<SearchResult>> tasks = new ArrayList<>(engines.length);
+        for (int i = 0; i < engines.length; i++) {
+            SearchEngine engine = engines[i];
+            Consumer<SearchResult> listener = i == 0 ? progress : null;
+            tasks.add(pool.submit(() -> engine.search(root, maxDepth, timeMillis, listener)));
+        }
+        SearchResult main = tasks.get(0).join();
+        stop.set(true); // 主執行緒完成後讓其他執行緒收工
+
+        SearchResult best = main;
+        long nodes = 0;
+        for (ForkJoinTask<SearchResult> task : tasks) {
+            SearchResult result = task.join();
+            nodes += result.nodes;
+            if (result.depth > best.depth && result.bestMove >= 0) {
+                best = result;
+            }
+        }
+        SearchResult result = new SearchResult(best.bestMove, best.score, best.depth, nodes, System.nanoTime() - start);
+        Metrics.global().searched(result);
+        return result;
+    }
+
+    /** Stops the running search and any already numbered, e.g. when the turn clock expires. */
+    public void cancel() {
+        tickets.cancelAll(stop);
+    }
+
+    /** Stops the search numbered {@code ticket}, whether it is running or not started yet. */
+    public void cancel(long ticket) {
+        tickets.cancel(ticket, stop);
+    }
+
+    /** True if the last search was cut short by a cancel. */
+    public boolean wasCancelled() {
+        return lastTicket != 0 && tickets.isCancelled(lastTicket);
+    }
+
+    public int threads() {
+        return engines.length;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.example;
+
+/**
+ * Threat-pattern evaluation over every (winLength + 1)-cell window of every
+ * line, scored through a lookup table (open four, four, open/split three...).
+ * The total is kept incrementally: a move only re-scores the windows through
+ * its cell, so {@link #evaluate} is O(1). Names assume five-in-a-row.
+ */
+public final class PatternEvaluator implements Evaluator {
+
+    public static final int NONE = 0;
+    public static final int ONE = 1;
+    public static final int TWO = 2;
+    public static final int OPEN_TWO = 3;
+    public static final int THREE = 4;
+    public static final int SPLIT_THREE = 5;
+    public static final int OPEN_THREE = 6;
+    public static final int FOUR = 7;
+    public static final int OPEN_FOUR = 8;
+    public static final int FIVE = 9;
+
+    public static final int MIN_WIN_LENGTH = 3;
+    public static final int MAX_WIN_LENGTH = 9; // 查表大小為 4^(winLength+1)
+
+    private static final int[] TYPE_SCORE = {0, 1, 10, 50, 100, 400, 500, 1000, 10000, 100000};
+
+    // 每種連線長度一份表，索引：己方 bit | (對方或牆) bit << window
+    private static final byte[][] PATTERNS = new byte[MAX_WIN_LENGTH + 1][];
+    private static final int[][] VALUES = new int[MAX_WIN_LENGTH + 1][];
+
+    private GameState scratch;
+    private int window;
+    private int windowMask;
+    private int[] values;
+    private int score; // X 的分數減去 O 的分數
+
+    @Override
+    public int evaluate(GameState state, int player) {
+        return player == GameState.X ? score : -score;
+    }
+
+    /** Recomputes the total for {@code state} from scratch. */
+    @Override
+    public void reset(GameState state) {
+        if (scratch == null || scratch.size() != state.size() || scratch.winLength() != state.winLength()) {
+            scratch = new GameState(state.size(), state.winLength());
+            window = state.winLength() + 1;
+            windowMask = (1 << window) - 1;
+            values = values(state.winLength());
+        }
+        scratch.clear();
+        score = 0;
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            scratch.place(cell, state.get(cell));
+            score += delta(scratch, cell);
+        }
+    }
+
+    /** Call after {@code cell} has been placed on {@code state}. */
+    @Override
+    public void onPlace(GameState state, int cell) {
+        score += delta(state, cell);
+    }
+
+    /** Call before the stone on {@code cell} is removed from {@code state}. */
+    @Override
+    public void onUndo(GameState state, int cell) {
+        score -= delta(state, cell);
+    }
+
+    // 該格有子與無子時，經過它的所有窗口分數差
+    private int delta(GameState state, int cell) {
+        int reach = window - 1; // 落子兩側各看 winLength 格
+        int size = state.size();
+        int player = state.get(cell);
+        int row = state.row(cell);
+        int col = state.col(cell);
+        int center = 1 << reach;
+        int total = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int dr = GameState.DR[dir];
+            int dc = GameState.DC[dir];
+            int xBits = 0;
+            int oBits = 0;
+            int wall = 0;
+            for (int i = -reach; i <= reach; i++) {
+                int r = row + i * dr;
+                int c = col + i * dc;
+                int bit = 1 << (i + reach);
+                if (r < 0 || r >= size || c < 0 || c >= size) {
+                    wall |= bit;
+                } else {
+                    int stone = state.get(r * size + c);
+                    if (stone == GameState.X) {
+                        xBits |= bit;
+                    } else if (stone == GameState.O) {
+                        oBits |= bit;
+                    }
+                }
+            }
+            int with = lineValue(xBits, oBits, wall);
+            int without = player == GameState.X
+                    ? lineValue(xBits & ~center, oBits, wall)
+                    : lineValue(xBits, oBits & ~center, wall);
+            total += with - without;
+        }
+        return total;
+    }
+
+    private int lineValue(int xBits, int oBits, int wall) {
+        int value = 0;
+        for (int k = 0; k < window; k++) {
+            int x = (xBits >>> k) & windowMask;
+            int o = (oBits >>> k) & windowMask;
+            int w = (wall >>> k) & windowMask;
+            value += values[x | (o | w) << window] - values[o | (x | w) << window];
+        }
+        return value;
+    }
+
+    public static boolean supports(int winLength) {
+        return winLength >= MIN_WIN_LENGTH && winLength <= MAX_WIN_LENGTH;
+    }
+
+    /**
+     * Strongest pattern type {@code player} would form by playing the empty
+     * {@code cell}, over the four lines through it; used for move ordering.
+     */
+    public static int threat(GameState state, int cell, int player) {
+        int both = threats(patterns(state.winLength()), state, cell);
+        return player == GameState.X ? both & 0xF : both >>> 4;
+    }
+
+    // 熱路徑用：一次掃描算出雙方型態，X 在低 4 bit、O 在高 4 bit；呼叫端先取得查表
+    static int threats(byte[] patterns, GameState state, int cell) {
+        int winLength = state.winLength();
+        int window = winLength + 1;
+        int windowMask = (1 << window) - 1;
+        int reach = winLength;
+        int size = state.size();
+        int row = state.row(cell);
+        int col = state.col(cell);
+        int center = 1 << reach; // 假設已落在該格
+        int bestX = NONE;
+        int bestO = NONE;
+        for (int dir = 0; dir < 4; dir++) {
+            int dr = GameState.DR[dir];
+            int dc = GameState.DC[dir];
+            int xBits = 0;
+            int oBits = 0;
+            int wall = 0;
+            for (int i = -reach; i <= reach; i++) {
+                int r = row + i * dr;
+                int c = col + i * dc;
+                int bit = 1 << (i + reach);
+                if (r < 0 || r >= size || c < 0 || c >= size) {
+                    wall |= bit;
+                } else {
+                    int stone = state.get(r * size + c);
+                    if (stone == GameState.X) {
+                        xBits |= bit;
+                    } else if (stone == GameState.O) {
+                        oBits |= bit;
+                    }
+                }
+            }
+            int xOwn = xBits | center;
+            int oOwn = oBits | center;
+            for (int k = 0; k < window; k++) {
+                int w = (wall >>> k) & windowMask;
+                int x = patterns[((xOwn >>> k) & windowMask) | (((oBits >>> k) & windowMask) | w) << window];
+                int o = patterns[((oOwn >>> k) & windowMask) | (((xBits >>> k) & windowMask) | w) << window];
+                bestX = Math.max(bestX, x);
+                bestO = Math.max(bestO, o);
+            }
+        }
+        return bestX | bestO << 4;
+    }
+
+    /** Pattern type of a five-in-a-row window given own and blocked cell masks. */
+    public static int pattern(int own, int blocked) {
+        return pattern(GameState.DEFAULT_WIN_LENGTH, own, blocked);
+    }
+
+    /** Pattern type of a (winLength + 1)-cell window. */
+    public static int pattern(int winLength, int own, int blocked) {
+        tables(winLength);
+        return PATTERNS[winLength][own | blocked << (winLength + 1)];
+    }
+
+    static byte[] patterns(int winLength) {
+        tables(winLength);
+        return PATTERNS[winLength];
+    }
+
+    static int[] values(int winLength) {
+        tables(winLength);
+        return VALUES[winLength];
+    }
+
+    private static synchronized void tables(int winLength) {
+        if (winLength < MIN_WIN_LENGTH || winLength > MAX_WIN_LENGTH) {
+            throw new IllegalArgumentException("Pattern evaluation supports win lengths "
+                    + MIN_WIN_LENGTH + ".." + MAX_WIN_LENGTH + ": " + winLength);
+        }
+        if (PATTERNS[winLength] != null) {
+            return;
+        }
+        int window = winLength + 1;
+        int mask = (1 << window) - 1;
+        byte[] patterns = new byte[1 << (2 * window)];
+        int[] values = new int[1 << (2 * window)];
+        for (int own = 0; own <= mask; own++) {
+            for (int blocked = 0; blocked <= mask; blocked++) {
+                if ((own & blocked) == 0) {
+                    int type = classify(winLength, own, blocked);
+                    patterns[own | blocked << window] = (byte) type;
+                    values[own | blocked << window] = TYPE_SCORE[type];
+                }
+            }
+        }
+        VALUES[winLength] = values;
+        PATTERNS[winLength] = patterns;
+    }
+
+    private static int classify(int k, int own, int blocked) {
+        int mask = (1 << (k + 1)) - 1;
+        int empty = ~(own | blocked) & mask;
+        int left = (1 << k) - 1; // 前 k 格
+        int right = left << 1; // 後 k 格
+        int ends = 1 | 1 << k;
+        int interior = mask & ~ends;
+        if ((own & left) == left || (own & right) == right) {
+            return FIVE;
+        }
+        boolean openEnds = (empty & ends) == ends && blocked == 0;
+        int stones = Integer.bitCount(own);
+        if (openEnds && own == interior) {
+            return OPEN_FOUR;
+        }
+        int best = Math.max(inRun(own, blocked, left), inRun(own, blocked, right));
+        if (best == k - 1) {
+            return FOUR;
+        }
+        if (openEnds && stones == k - 2 && stones > 0) {
+            int run = own >>> Integer.numberOfTrailingZeros(own);
+            return (run & (run + 1)) == 0 ? OPEN_THREE : SPLIT_THREE;
+        }
+        if (best == k - 2) {
+            return THREE;
+        }
+        if (openEnds && stones == k - 3 && stones > 0) {
+            return OPEN_TWO;
+        }
+        if (best == k - 3 && best > 0) {
+            return TWO;
+        }
+        return best >= 1 ? ONE : NONE;
+    }
+
+    // k 格子窗口中沒有阻擋時的己方子數
+    private static int inRun(int own, int blocked, int sub) {
+        return (blocked & sub) == 0 ? Integer.bitCount(own & sub) : 0;
+    }
+}
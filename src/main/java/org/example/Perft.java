@@ -0,0 +1,309 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Walks every move sequence to a fixed depth, like chess perft, counting
+ * positions, wins and draws per ply. The first plies are split into
+ * ForkJoin tasks. In verify mode every move also runs each fast win check
+ * against a naive full-board scan and counts the disagreements.
+ */
+public final class Perft implements AutoCloseable {
+
+    private static final int TASKS_PER_THREAD = 32;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+
+    /** Counts for plies 1..depth at index 0..depth-1. */
+    public static final class Result {
+        public final long[] nodes;
+        public final long[] wins;
+        public final long[] draws;
+        public final long mismatches;
+        public final String firstMismatch; // 第一個不一致的局面，沒有則為 null
+        public final long elapsedNanos;
+
+        Result(long[] nodes, long[] wins, long[] draws, long mismatches, String firstMismatch, long elapsedNanos) {
+            this.nodes = nodes;
+            this.wins = wins;
+            this.draws = draws;
+            this.mismatches = mismatches;
+            this.firstMismatch = firstMismatch;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long totalNodes() {
+            long total = 0;
+            for (long n : nodes) {
+                total += n;
+            }
+            return total;
+        }
+
+        public long nodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : (long) (totalNodes() * 1e9 / elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            for (int ply = 0; ply < nodes.length; ply++) {
+                out.append(String.format("ply %2d: nodes=%d wins=%d draws=%d%n",
+                        ply + 1, nodes[ply], wins[ply], draws[ply]));
+            }
+            out.append(String.format("%d nodes in %dms, %d nodes/s, mismatches=%d",
+                    totalNodes(), elapsedNanos / 1_000_000, nodesPerSecond(), mismatches));
+            if (firstMismatch != null) {
+                out.append(" first: ").append(firstMismatch);
+            }
+            return out.toString();
+        }
+    }
+
+    public Perft() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public Perft(int threads) {
+        this.threads = Math.max(1, threads);
+        this.pool = new ForkJoinPool(this.threads);
+    }
+
+    /** Enumerates {@code depth} plies from {@code root}; {@code verify} adds the cross-checks. */
+    public Result run(GameState root, int depth, boolean verify) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1: " + depth);
+        }
+        long start = System.nanoTime();
+        Walk walk = new Walk(depth, verify, splitPly(root, depth));
+        pool.invoke(walk.new Split(root.copy(), 0));
+        long[] nodes = new long[depth];
+        long[] wins = new long[depth];
+        long[] draws = new long[depth];
+        for (int ply = 0; ply < depth; ply++) {
+            nodes[ply] = walk.nodes[ply].sum();
+            wins[ply] = walk.wins[ply].sum();
+            draws[ply] = walk.draws[ply].sum();
+        }
+        return new Result(nodes, wins, draws, walk.mismatches.sum(), walk.firstMismatch.get(),
+                System.nanoTime() - start);
+    }
+
+    // 拆到任務數足夠讓每個執行緒分到多份為止
+    private int splitPly(GameState root, int depth) {
+        long tasks = 1;
+        int empty = root.cells() - root.moveCount();
+        int ply = 0;
+        while (ply < depth - 1 && tasks < (long) threads * TASKS_PER_THREAD && empty > 0) {
+            tasks *= empty--;
+            ply++;
+        }
+        return ply;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Walk {
+        final int depth;
+        final boolean verify;
+        final int splitPly;
+        final LongAdder[] nodes;
+        final LongAdder[] wins;
+        final LongAdder[] draws;
+        final LongAdder mismatches = new LongAdder();
+        final AtomicReference<String> firstMismatch = new AtomicReference<>();
+
+        Walk(int depth, boolean verify, int splitPly) {
+            this.depth = depth;
+            this.verify = verify;
+            this.splitPly = splitPly;
+            this.nodes = adders(depth);
+            this.wins = adders(depth);
+            this.draws = adders(depth);
+        }
+
+        private static LongAdder[] adders(int n) {
+            LongAdder[] adders = new LongAdder[n];
+            for (int i = 0; i < n; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+
+        // 前幾層每個走法一個任務，之後在同一個棋盤上遞迴
+        final class Split extends RecursiveAction {
+            private final GameState state;
+            private final int ply;
+
+            Split(GameState state, int ply) {
+                this.state = state;
+                this.ply = ply;
+            }
+
+            @Override
+            protected void compute() {
+                Counts counts = new Counts(depth);
+                if (ply >= splitPly) {
+                    walk(state, ply, counts);
+                    counts.flush(Walk.this);
+                    return;
+                }
+                List<Split> children = new ArrayList<>();
+                int player = state.toMove();
+                for (int cell = 0; cell < state.cells(); cell++) {
+                    if (state.isEmpty(cell)) {
+                        if (visit(state, cell, player, ply, counts)) {
+                            children.add(new Split(state.copy(), ply + 1));
+                        }
+                        state.undo();
+                    }
+                }
+                counts.flush(Walk.this);
+                invokeAll(children);
+            }
+        }
+
+        private void walk(GameState state, int ply, Counts counts) {
+            int player = state.toMove();
+            for (int cell = 0; cell < state.cells(); cell++) {
+                if (state.isEmpty(cell)) {
+                    if (visit(state, cell, player, ply, counts)) {
+                        walk(state, ply + 1, counts);
+                    }
+                    state.undo();
+                }
+            }
+        }
+
+        // 落子並記錄；回傳是否還要往下展開。呼叫端負責悔棋
+        private boolean visit(GameState state, int cell, int player, int ply, Counts counts) {
+            boolean wouldWin = verify && state.wouldWin(cell, player);
+            int threat = verify && PatternEvaluator.supports(state.winLength())
+                    ? PatternEvaluator.threat(state, cell, player) : -1;
+            state.place(cell, player);
+            counts.nodes[ply]++;
+            long line = state.winningLine(cell);
+            boolean win = line != WinLine.NONE;
+            if (verify) {
+                boolean reference = referenceWin(state, player);
+                if (wouldWin != reference || win != reference
+                        || threat >= 0 && (threat == PatternEvaluator.FIVE) != reference
+                        || win && !validLine(state, line, cell, player)) {
+                    mismatch(state, cell, reference, wouldWin, win, threat);
+                }
+            }
+            if (win) {
+                counts.wins[ply]++;
+                return false;
+            }
+            if (state.isFull()) {
+                counts.draws[ply]++;
+                return false;
+            }
+            return ply + 1 < depth;
+        }
+
+        private void mismatch(GameState state, int cell, boolean reference, boolean wouldWin, boolean win,
+                              int threat) {
+            mismatches.increment();
+            if (firstMismatch.get() == null) {
+                StringBuilder moves = new StringBuilder();
+                for (int i = 0; i < state.moveCount(); i++) {
+                    moves.append(i == 0 ? "" : ",").append(state.moveAt(i));
+                }
+                firstMismatch.compareAndSet(null, String.format(
+                        "moves=[%s] cell=%d reference=%b wouldWin=%b winningLine=%b threat=%d",
+                        moves, cell, reference, wouldWin, win, threat));
+            }
+        }
+    }
+
+    // 每個任務自己的計數，結束時才加總到共用的 LongAdder
+    private static final class Counts {
+        final long[] nodes;
+        final long[] wins;
+        final long[] draws;
+
+        Counts(int depth) {
+            nodes = new long[depth];
+            wins = new long[depth];
+            draws = new long[depth];
+        }
+
+        void flush(Walk walk) {
+            for (int ply = 0; ply < nodes.length; ply++) {
+                walk.nodes[ply].add(nodes[ply]);
+                walk.wins[ply].add(wins[ply]);
+                walk.draws[ply].add(draws[ply]);
+            }
+        }
+    }
+
+    /** Naive reference: scans every cell and direction for a run of {@code player}. */
+    static boolean referenceWin(GameState state, int player) {
+        int size = state.size();
+        int k = state.winLength();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int dir = 0; dir < 4; dir++) {
+                    int i = 0;
+                    while (i < k) {
+                        int r = row + i * GameState.DR[dir];
+                        int c = col + i * GameState.DC[dir];
+                        if (r < 0 || r >= size || c < 0 || c >= size || state.get(r, c) != player) {
+                            break;
+                        }
+                        i++;
+                    }
+                    if (i == k) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // 回報的連線需含落子、長度足夠、每格都是該玩家
+    private static boolean validLine(GameState state, long line, int cell, int player) {
+        int length = WinLine.length(line);
+        if (length < state.winLength()) {
+            return false;
+        }
+        boolean containsMove = false;
+        for (int i = 0; i < length; i++) {
+            int c = WinLine.cellAt(state, line, i);
+            if (state.get(c) != player) {
+                return false;
+            }
+            containsMove |= c == cell;
+        }
+        return containsMove;
+    }
+
+    // 例：java org.example.Perft 4 9 5 verify
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : GameState.DEFAULT_SIZE;
+        int length = args.length > 2 ? Integer.parseInt(args[2]) : GameState.DEFAULT_WIN_LENGTH;
+        boolean verify = args.length > 3 && args[3].equals("verify");
+        try (Perft perft = new Perft()) {
+            System.out.println(perft.run(new GameState(size, length), depth, verify));
+        }
+    }
+}
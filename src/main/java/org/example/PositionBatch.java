@@ -0,0 +1,146 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Positions for {@link BatchEvaluator}, stored as prefixes of move sequences
+ * in flat int arrays. A game of n moves costs n ints however many of its
+ * positions are included, and consecutive plies evaluate incrementally.
+ * Positions are numbered by sequence, then ply.
+ */
+public final class PositionBatch {
+
+    private final int size;
+    private final int winLength;
+    private int[] stones = new int[1024]; // 格子 << 1 | 是否為 O
+    private int stoneCount;
+    // 每條序列的起點、長度與第一個納入的步數
+    private int[] starts = new int[64];
+    private int[] lengths = new int[64];
+    private int[] firstPlies = new int[64];
+    private int sequences;
+    private int positions;
+    private Set<CanonicalBoard> seen; // addDistinct 用，第一次呼叫才建立
+
+    public PositionBatch(int size, int winLength) {
+        this.size = size;
+        this.winLength = winLength;
+    }
+
+    /** Adds {@code state} as one position. */
+    public void add(GameState state) {
+        addGame(state, state.moveCount());
+    }
+
+    /** Adds {@code state} unless it or a rotation or mirror of it was added this way before. */
+    public boolean addDistinct(GameState state) {
+        check(state.size(), state.winLength());
+        if (seen == null) {
+            seen = new HashSet<>();
+        }
+        if (!seen.add(CanonicalBoard.of(state))) {
+            return false;
+        }
+        add(state);
+        return true;
+    }
+
+    public void addAll(Stream<GameState> states) {
+        states.forEach(this::add);
+    }
+
+    /** Adds the position after every ply from {@code fromPly} to the end of the game. */
+    public void addGame(GameState state, int fromPly) {
+        check(state.size(), state.winLength());
+        int start = begin(state.moveCount());
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            stones[start + i] = cell << 1 | (state.get(cell) == GameState.O ? 1 : 0);
+        }
+        end(start, state.moveCount(), fromPly);
+    }
+
+    /** As {@link #addGame(GameState, int)}, read straight from the archive. */
+    public void addGame(GameArchive.GameRecord game, int fromPly) {
+        check(game.size, game.winLength);
+        int start = begin(game.moveCount);
+        for (int i = 0; i < game.moveCount; i++) {
+            stones[start + i] = game.move(i) << 1 | (game.player(i) == GameState.O ? 1 : 0);
+        }
+        end(start, game.moveCount, fromPly);
+    }
+
+    /** Every position of every archived game on this board. */
+    public void addArchive(GameArchive archive) throws IOException {
+        archive.forEach(0, game -> {
+            if (game.size == size && game.winLength == winLength) {
+                addGame(game, 0);
+            }
+        });
+    }
+
+    private void check(int boardSize, int boardWinLength) {
+        if (boardSize != size || boardWinLength != winLength) {
+            throw new IllegalArgumentException("Batch is for " + size + "x" + size + " with " + winLength
+                    + " in a row, not " + boardSize + "x" + boardSize + " with " + boardWinLength);
+        }
+    }
+
+    private int begin(int length) {
+        if (stoneCount + length > stones.length) {
+            stones = Arrays.copyOf(stones, Math.max(stones.length * 2, stoneCount + length));
+        }
+        if (sequences == starts.length) {
+            starts = Arrays.copyOf(starts, sequences * 2);
+            lengths = Arrays.copyOf(lengths, sequences * 2);
+            firstPlies = Arrays.copyOf(firstPlies, sequences * 2);
+        }
+        return stoneCount;
+    }
+
+    private void end(int start, int length, int fromPly) {
+        int first = Math.max(0, Math.min(fromPly, length));
+        starts[sequences] = start;
+        lengths[sequences] = length;
+        firstPlies[sequences] = first;
+        sequences++;
+        stoneCount += length;
+        positions += length - first + 1;
+    }
+
+    public int boardSize() {
+        return size;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    public int positions() {
+        return positions;
+    }
+
+    public int sequences() {
+        return sequences;
+    }
+
+    int start(int sequence) {
+        return starts[sequence];
+    }
+
+    int length(int sequence) {
+        return lengths[sequence];
+    }
+
+    int firstPly(int sequence) {
+        return firstPlies[sequence];
+    }
+
+    int stone(int index) {
+        return stones[index];
+    }
+}
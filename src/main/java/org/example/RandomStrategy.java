@@ -0,0 +1,33 @@
+package org.example;
+
+import java.util.SplittableRandom;
+
+/** Uniformly random empty cell; the baseline every engine should beat. */
+public final class RandomStrategy implements MoveStrategy {
+
+    private final SplittableRandom random;
+
+    public RandomStrategy(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public String name() {
+        return "random";
+    }
+
+    @Override
+    public int chooseMove(GameState state) {
+        int empty = state.cells() - state.moveCount();
+        if (empty == 0) {
+            return -1;
+        }
+        int skip = random.nextInt(empty);
+        for (int cell = 0; cell < state.cells(); cell++) {
+            if (state.isEmpty(cell) && skip-- == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example;
+
+/** A series in progress: the current round's position plus the score so far. */
+public final class SavedMatch {
+
+    public final GameState state;
+    public final int xWins;
+    public final int oWins;
+    public final int draws;
+
+    public SavedMatch(GameState state, int xWins, int oWins, int draws) {
+        this.state = state;
+        this.xWins = xWins;
+        this.oWins = oWins;
+        this.draws = draws;
+    }
+}
@@ -0,0 +1,377 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Iterative-deepening negamax with alpha-beta pruning under a time budget,
+ * preceded by a {@link ThreatSolver} pass that answers forced wins. Moves
+ * come from an incremental {@link CandidateSet} and are ordered by previous
+ * best, table move, threat, killers and history; forced wins and blocks
+ * prune the rest. Transpositions are cut off through a
+ * {@link TranspositionTable}. The cost follows the occupied area. An engine is single-threaded and
+ * keeps its own copy of the position; {@link ParallelSearch} shares a table.
+ */
+public final class SearchEngine {
+
+    public static final int WIN_SCORE = 1_000_000;
+    private static final int INFINITY = WIN_SCORE + 1;
+    public static final int MAX_PLY = 64;
+    private static final int THREAT_SHIFT = 25; // 威脅等級排在殺手步與歷史分數之前
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final int[][] moveBuffer = new int[MAX_PLY + 1][64];
+    private final int[][] orderBuffer = new int[MAX_PLY + 1][64];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // 以下依棋盤大小配置，換棋盤時重建
+    private GameState state;
+    private int[][] history;
+    private int[] touched = new int[256]; // history 中非零的項目，格子 << 2 | 玩家；新搜尋只清這些
+    private int touchedCount;
+    private int[] noise; // 平行搜尋時讓各執行緒的走法順序略有不同
+    private final CandidateSet candidates = new CandidateSet();
+    private ThreatSolver threats; // 只有主搜尋使用，先找必勝的連續威脅
+    private long noiseSeed;
+    private final AtomicBoolean stopSignal;
+    private final boolean helper; // 平行搜尋的成員，由 ParallelSearch 管理置換表世代與停止訊號
+
+    private long nodes;
+    private long evaluations; // 葉節點評估次數，搜尋結束時一次計入 Metrics
+    private long winChecks;
+    private long deadline;
+    private boolean stopped;
+    private int rootBest;
+    private int firstDepth = 1;
+
+    public SearchEngine() {
+        this(new PatternEvaluator());
+    }
+
+    public SearchEngine(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable());
+    }
+
+    public SearchEngine(Evaluator evaluator, TranspositionTable table) {
+        this(evaluator, table, new AtomicBoolean(), false);
+    }
+
+    SearchEngine(Evaluator evaluator, TranspositionTable table, AtomicBoolean stopSignal, boolean helper) {
+        this.evaluator = evaluator;
+        this.table = table;
+        this.stopSignal = stopSignal;
+        this.helper = helper;
+    }
+
+    /** Stops a running search; it returns the last completed iteration. */
+    public void cancel() {
+        stopSignal.set(true);
+    }
+
+    void setFirstDepth(int depth) {
+        firstDepth = depth;
+    }
+
+    void randomizeOrdering(long seed) {
+        noiseSeed = seed;
+        noise = null;
+    }
+
+    private void addHistory(int player, int move, int bonus) {
+        if (history[player][move] == 0) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = move << 2 | player;
+        }
+        history[player][move] += bonus;
+    }
+
+    // 依局面的棋盤尺寸準備工作區
+    private void prepare(GameState position) {
+        if (state == null || state.size() != position.size() || state.winLength() != position.winLength()) {
+            state = new GameState(position.size(), position.winLength());
+            history = new int[3][state.cells()];
+            touchedCount = 0;
+            noise = null;
+        }
+        if (noise == null) {
+            noise = new int[state.cells()];
+            if (noiseSeed != 0) {
+                SplittableRandom random = new SplittableRandom(noiseSeed);
+                for (int cell = 0; cell < noise.length; cell++) {
+                    noise[cell] = random.nextInt(8);
+                }
+            }
+        }
+        state.copyFrom(position);
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Searches {@code position} for its side to move until {@code maxDepth}
+     * is completed or {@code timeMillis} runs out; the position is not modified.
+     */
+    public SearchResult search(GameState position, int maxDepth, long timeMillis) {
+        return search(position, maxDepth, timeMillis, null);
+    }
+
+    /** As {@link #search(GameState, int, long)}, reporting each completed depth. */
+    public SearchResult search(GameState position, int maxDepth, long timeMillis, Consumer<SearchResult> progress) {
+        long start = System.nanoTime();
+        prepare(position);
+        evaluator.reset(state);
+        candidates.reset(state);
+        deadline = start + timeMillis * 1_000_000L;
+        nodes = 0;
+        evaluations = 0;
+        winChecks = 0;
+        stopped = false;
+        if (!helper) {
+            stopSignal.set(false);
+            table.newSearch();
+            if (threats == null) {
+                threats = new ThreatSolver();
+            }
+            SearchResult proof = threats.findWin(state);
+            Metrics.global().threatWork(threats.nodes());
+            if (proof != null) {
+                Metrics.global().searched(proof);
+                if (progress != null) {
+                    progress.accept(proof);
+                }
+                return proof;
+            }
+        }
+        for (int[] killer : killers) {
+            killer[0] = -1;
+            killer[1] = -1;
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            history[touched[i] & 3][touched[i] >>> 2] = 0;
+        }
+        touchedCount = 0;
+
+        int bestMove = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        rootBest = -1;
+        int limit = Math.min(Math.min(maxDepth, MAX_PLY), state.cells() - state.moveCount());
+        for (int depth = Math.min(firstDepth, Math.max(1, limit)); depth <= limit; depth++) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            completedDepth = depth;
+            if (progress != null) {
+                progress.accept(new SearchResult(bestMove, bestScore, depth, nodes, System.nanoTime() - start));
+            }
+            if (Math.abs(score) >= WIN_SCORE - MAX_PLY) {
+                break; // 已找到必勝或必敗，不需更深
+            }
+        }
+        if (bestMove < 0) {
+            bestMove = rootBest >= 0 ? rootBest : firstCandidate();
+        }
+        SearchResult result = new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+        Metrics.global().searchWork(nodes, evaluations, winChecks);
+        if (!helper) {
+            Metrics.global().searched(result);
+        }
+        return result;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if ((nodes & 1023) == 0 && (System.nanoTime() > deadline || stopSignal.get())) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        int player = state.toMove();
+        if (depth == 0) {
+            evaluations++;
+            return evaluator.evaluate(state, player);
+        }
+
+        long key = state.hash();
+        int alphaOrig = alpha;
+        int ttMove = -1;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER && score >= beta
+                        || bound == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        int count = orderMoves(ply, player, ttMove);
+        int best = -INFINITY;
+        int bestMove = -1;
+        int[] moves = moveBuffer[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            state.place(move, player);
+            evaluator.onPlace(state, move);
+            candidates.onPlace(state, move);
+            int score;
+            winChecks++;
+            if (state.winningLine(move) != WinLine.NONE) {
+                score = WIN_SCORE - ply - 1;
+            } else if (state.isFull()) {
+                score = 0;
+            } else {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            }
+            evaluator.onUndo(state, move);
+            state.undo();
+            candidates.onUndo(state, move);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (killers[ply][0] != move) {
+                    killers[ply][1] = killers[ply][0];
+                    killers[ply][0] = move;
+                }
+                addHistory(player, move, depth * depth);
+                break;
+            }
+        }
+        if (bestMove >= 0 && best > -INFINITY) {
+            addHistory(player, bestMove, depth);
+            int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, depth, toTable(best, ply), bound, bestMove);
+        }
+        return best;
+    }
+
+    // 勝負分數以「距離目前節點的步數」存入置換表，取出時再換回
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        return score <= -WIN_SCORE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        return score <= -WIN_SCORE + MAX_PLY ? score + ply : score;
+    }
+
+    // 候選步依序排序：上一輪最佳步、置換表步、威脅等級、殺手步、歷史分數、鄰近棋子數
+    // 有一步可勝時只走勝著；對手有一步可勝時只考慮擋點
+    private int orderMoves(int ply, int player, int ttMove) {
+        int count = candidates.size();
+        if (count == 0) {
+            // 空棋盤從中央開始；棋子附近都滿時退回任一空格
+            int center = state.cell(state.size() / 2, state.size() / 2);
+            int cell = center;
+            while (cell < state.cells() && !state.isEmpty(cell)) {
+                cell = cell + 1 == state.cells() ? 0 : cell + 1;
+                if (cell == center) {
+                    return 0;
+                }
+            }
+            moveBuffer[ply][0] = cell;
+            return 1;
+        }
+        if (moveBuffer[ply].length < count) {
+            moveBuffer[ply] = new int[Integer.highestOneBit(count) << 1];
+            orderBuffer[ply] = new int[moveBuffer[ply].length];
+        }
+        int[] moves = moveBuffer[ply];
+        int[] keys = orderBuffer[ply];
+        int opponent = GameState.opponent(player);
+        int blocks = 0;
+        for (int m = 0; m < count; m++) {
+            int cell = candidates.get(m);
+            if (wins(cell, player)) {
+                moves[0] = cell;
+                return 1;
+            }
+            if (wins(cell, opponent)) {
+                blocks++;
+            }
+        }
+        int n = 0;
+        for (int m = 0; m < count; m++) {
+            int cell = candidates.get(m);
+            if (blocks > 0 && !wins(cell, opponent)) {
+                continue;
+            }
+            int key;
+            if (ply == 0 && cell == rootBest) {
+                key = Integer.MAX_VALUE;
+            } else if (cell == ttMove) {
+                key = Integer.MAX_VALUE - 1;
+            } else {
+                key = threatRank(cell, player, opponent) << THREAT_SHIFT;
+                if (cell == killers[ply][0]) {
+                    key += 1 << 24;
+                } else if (cell == killers[ply][1]) {
+                    key += 1 << 23;
+                }
+                key += history[player][cell] + candidates.stonesAround(cell) * 32 - centerDistance(cell) + noise[cell];
+            }
+            int i = n++;
+            while (i > 0 && keys[i - 1] < key) {
+                moves[i] = moves[i - 1];
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            moves[i] = cell;
+            keys[i] = key;
+        }
+        return n;
+    }
+
+    private boolean wins(int cell, int player) {
+        return candidates.hasThreats()
+                ? candidates.threat(state, cell, player) == PatternEvaluator.FIVE
+                : state.wouldWin(cell, player);
+    }
+
+    // 己方形成的型態略優先於擋下對方同級型態
+    private int threatRank(int cell, int player, int opponent) {
+        int own = candidates.threat(state, cell, player);
+        int theirs = candidates.threat(state, cell, opponent);
+        return Math.max(2 * own + 1, 2 * theirs);
+    }
+
+    private int centerDistance(int cell) {
+        int center = state.size() / 2;
+        return Math.abs(state.row(cell) - center) + Math.abs(state.col(cell) - center);
+    }
+
+    private int firstCandidate() {
+        return orderMoves(0, state.toMove(), -1) > 0 ? moveBuffer[0][0] : -1;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+/**
+ * Outcome of one search: best move, score and the effort spent finding it.
+ */
+public final class SearchResult {
+
+    public final int bestMove; // 最佳落子格，-1 表示沒有合法步
+    public final int score;
+    public final int depth; // 完整搜尋完成的深度
+    public final long nodes;
+    public final long elapsedNanos;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    public boolean isWin() {
+        return score >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        return "move=" + bestMove
+                + " score=" + score + " depth=" + depth + " nodes=" + nodes
+                + " time=" + elapsedNanos / 1_000_000 + "ms nps=" + nodesPerSecond();
+    }
+}
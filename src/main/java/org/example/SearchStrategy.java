@@ -0,0 +1,29 @@
+package org.example;
+
+/** The hint engine: a single-threaded {@link SearchEngine} with its own table. */
+public final class SearchStrategy implements MoveStrategy {
+
+    private final SearchEngine engine;
+    private final int maxDepth;
+    private final long timeMillis;
+
+    public SearchStrategy(int maxDepth, long timeMillis) {
+        this(new SearchEngine(), maxDepth, timeMillis);
+    }
+
+    public SearchStrategy(SearchEngine engine, int maxDepth, long timeMillis) {
+        this.engine = engine;
+        this.maxDepth = maxDepth;
+        this.timeMillis = timeMillis;
+    }
+
+    @Override
+    public String name() {
+        return "search-d" + maxDepth;
+    }
+
+    @Override
+    public int chooseMove(GameState state) {
+        return engine.search(state, maxDepth, timeMillis).bestMove;
+    }
+}
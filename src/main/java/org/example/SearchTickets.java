@@ -0,0 +1,46 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numbers the searches of one engine so a cancel can name the search it
+ * means. A search cancelled while still queued stops as soon as it starts,
+ * instead of the cancel being lost when the search resets its stop flag.
+ */
+final class SearchTickets {
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong cancelledThrough = new AtomicLong(); // 此編號以前的搜尋都已取消
+    private volatile long running;
+
+    long issue() {
+        return issued.incrementAndGet();
+    }
+
+    /** Marks {@code ticket} as running and sets {@code stop} to whether it was cancelled already. */
+    void start(long ticket, AtomicBoolean stop) {
+        running = ticket;
+        stop.set(false);
+        if (isCancelled(ticket)) {
+            stop.set(true); // 先寫 running 再檢查，與 cancel 的順序相反，兩邊至少一方會看到對方
+        }
+    }
+
+    /** Cancels {@code ticket} and every earlier one. */
+    void cancel(long ticket, AtomicBoolean stop) {
+        cancelledThrough.accumulateAndGet(ticket, Math::max);
+        if (running <= ticket) {
+            stop.set(true);
+        }
+    }
+
+    /** Cancels every search issued so far, running or queued. */
+    void cancelAll(AtomicBoolean stop) {
+        cancel(issued.get(), stop);
+    }
+
+    boolean isCancelled(long ticket) {
+        return cancelledThrough.get() >= ticket;
+    }
+}
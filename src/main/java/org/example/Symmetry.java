@@ -0,0 +1,103 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The eight symmetries of a square board (four rotations, each optionally
+ * mirrored) as precomputed cell maps, and a position key that is the same
+ * for all of them. See {@link CanonicalBoard} for the exact canonical form.
+ */
+public final class Symmetry {
+
+    public static final int COUNT = 8;
+    public static final int IDENTITY = 0;
+    static final int TABLE_MAX_SIZE = 64; // 更大的棋盤每次現算，避免快取數十 MB 的表
+
+    // 0 原樣、1 轉 90、2 轉 180、3 轉 270、4 左右翻、5 主對角翻、6 上下翻、7 副對角翻
+    private static final int[] INVERSE = {0, 3, 2, 1, 4, 5, 6, 7};
+    private static final AtomicReferenceArray<int[][]> TABLES = new AtomicReferenceArray<>(TABLE_MAX_SIZE + 1);
+
+    private Symmetry() {
+    }
+
+    /** Maps {@code cell} through transform {@code t} on a {@code size}-wide board. */
+    public static int apply(int t, int cell, int size) {
+        int r = cell / size;
+        int c = cell % size;
+        int m = size - 1;
+        return switch (t) {
+            case 0 -> cell;
+            case 1 -> c * size + (m - r);
+            case 2 -> (m - r) * size + (m - c);
+            case 3 -> (m - c) * size + r;
+            case 4 -> r * size + (m - c);
+            case 5 -> c * size + r;
+            case 6 -> (m - r) * size + c;
+            case 7 -> (m - c) * size + (m - r);
+            default -> throw new IllegalArgumentException("Unknown symmetry: " + t);
+        };
+    }
+
+    public static int inverse(int t) {
+        return INVERSE[t];
+    }
+
+    /**
+     * Cell maps of all transforms, {@code table(size)[t][cell]}; shared, do not
+     * modify. Boards over 64 get a fresh table per call, so use {@link #map}.
+     */
+    public static int[][] table(int size) {
+        if (size > TABLE_MAX_SIZE) {
+            return build(size);
+        }
+        int[][] table = TABLES.get(size);
+        if (table == null) {
+            table = build(size);
+            if (!TABLES.compareAndSet(size, null, table)) {
+                table = TABLES.get(size);
+            }
+        }
+        return table;
+    }
+
+    /** Cached map of transform {@code t}, or null on boards too large to cache. */
+    static int[] map(int t, int size) {
+        return size > TABLE_MAX_SIZE ? null : table(size)[t];
+    }
+
+    /** {@code map[cell]}, or {@link #apply} when {@code map} is null. */
+    static int apply(int[] map, int t, int cell, int size) {
+        return map == null ? apply(t, cell, size) : map[cell];
+    }
+
+    private static int[][] build(int size) {
+        int[][] table = new int[COUNT][size * size];
+        for (int t = 0; t < COUNT; t++) {
+            for (int cell = 0; cell < size * size; cell++) {
+                table[t][cell] = apply(t, cell, size);
+            }
+        }
+        return table;
+    }
+
+    /** Zobrist key of {@code state} seen through transform {@code t}. */
+    public static long hash(GameState state, int t) {
+        int[] map = map(t, state.size());
+        long hash = state.toMove() == GameState.O ? Zobrist.SIDE : 0L;
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            hash ^= Zobrist.key(state.get(cell), apply(map, t, cell, state.size()));
+        }
+        return hash;
+    }
+
+    /** Transform that gives the {@link CanonicalBoard} of {@code state}. */
+    public static int canonicalTransform(GameState state) {
+        return CanonicalBoard.of(state).transform();
+    }
+
+    /** Key shared by all eight symmetric copies of {@code state}. */
+    public static long canonicalHash(GameState state) {
+        return CanonicalBoard.of(state).zobrist();
+    }
+}
@@ -0,0 +1,256 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Threat-space search for the side to move: victory by continuous fours
+ * (VCF) and, with a budget of threes, by continuous threats (VCT). Only
+ * threatening moves are tried for the attacker and only the replies that
+ * answer the threat for the defender, so forced wins are found long before
+ * the full-width search would reach them. Results are kept in a proof cache.
+ */
+public final class ThreatSolver {
+
+    public static final int DEFAULT_MAX_PLIES = 32;
+    public static final long DEFAULT_MAX_NODES = 4_000;
+    public static final int DEFAULT_THREES = 2;
+    private static final int CACHE_BITS = 16;
+
+    private final int maxPlies;
+    private final long maxNodes;
+    // 證明快取：只存攻方節點，勝局不論深度都可用，未證出則記下當時的深度與三的額度
+    private final long[] cacheKeys = new long[1 << CACHE_BITS];
+    private final long[] cacheValues = new long[1 << CACHE_BITS]; // 勝、額度、剩餘步數、勝著
+    private final int[][] moveBuffer;
+    private final CandidateSet candidates = new CandidateSet();
+    private GameState state;
+
+    private long nodes;
+    private boolean aborted;
+    private boolean allowThrees;
+    private int rootMove;
+
+    public ThreatSolver() {
+        this(DEFAULT_MAX_PLIES, DEFAULT_MAX_NODES);
+    }
+
+    /** {@code maxPlies} bounds the length of a proof, {@code maxNodes} the work per solve. */
+    public ThreatSolver(int maxPlies, long maxNodes) {
+        this.maxPlies = maxPlies;
+        this.maxNodes = maxNodes;
+        this.moveBuffer = new int[maxPlies + 1][32];
+    }
+
+    /** Tries continuous fours first, then threats with the default three budget. */
+    public SearchResult findWin(GameState position) {
+        SearchResult win = solveVcf(position);
+        return win != null ? win : solve(position, DEFAULT_THREES);
+    }
+
+    /** A winning move by continuous fours, or null. */
+    public SearchResult solveVcf(GameState position) {
+        return solve(position, 0);
+    }
+
+    /** A winning move using at most {@code threes} threes among the fours, or null. */
+    public SearchResult solve(GameState position, int threes) {
+        long start = System.nanoTime();
+        if (!PatternEvaluator.supports(position.winLength())) {
+            return null;
+        }
+        if (state == null || state.size() != position.size() || state.winLength() != position.winLength()) {
+            state = new GameState(position.size(), position.winLength());
+            Arrays.fill(cacheKeys, 0L);
+        }
+        state.copyFrom(position);
+        candidates.reset(state);
+        nodes = 0;
+        aborted = false;
+        allowThrees = threes > 0;
+        rootMove = -1;
+        boolean win = attack(0, maxPlies, threes);
+        if (!win || rootMove < 0 || !position.isEmpty(rootMove)) {
+            return null;
+        }
+        return new SearchResult(rootMove, SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY, 0, nodes,
+                System.nanoTime() - start);
+    }
+
+    /** Nodes visited by the last solve. */
+    public long nodes() {
+        return nodes;
+    }
+
+    /** True if the last solve hit the node limit before finishing. */
+    public boolean wasAborted() {
+        return aborted;
+    }
+
+    private boolean attack(int ply, int pliesLeft, int threes) {
+        if (++nodes > maxNodes) {
+            aborted = true;
+            return false;
+        }
+        int attacker = state.toMove();
+        int defender = GameState.opponent(attacker);
+        long key = state.hash();
+        int level = allowThrees ? threes + 1 : 0; // 額度越高能證出的越多
+        int slot = (int) key & (cacheKeys.length - 1);
+        if (cacheKeys[slot] == key) {
+            long value = cacheValues[slot];
+            if ((value & 1) != 0) {
+                int move = (int) (value >>> 32);
+                if (state.isEmpty(move)) {
+                    if (ply == 0) {
+                        rootMove = move;
+                    }
+                    return true;
+                }
+            } else if ((value >>> 9 & 0xFF) >= pliesLeft && (value >>> 1 & 0xFF) >= level) {
+                return false;
+            }
+        }
+
+        int count = 0;
+        int forced = -1;
+        int defenderFives = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            int cell = candidates.get(i);
+            if (candidates.threat(state, cell, attacker) == PatternEvaluator.FIVE) {
+                return proven(ply, key, slot, cell);
+            }
+            if (candidates.threat(state, cell, defender) == PatternEvaluator.FIVE) {
+                defenderFives++;
+                forced = cell;
+            }
+        }
+        if (defenderFives > 1 || pliesLeft <= 0) {
+            return disproven(key, slot, pliesLeft, level);
+        }
+        int[] moves = moveBuffer[ply];
+        if (forced >= 0) {
+            moves[count++] = forced; // 先擋對方的四
+        } else {
+            for (int i = 0; i < candidates.size(); i++) {
+                int cell = candidates.get(i);
+                int type = candidates.threat(state, cell, attacker);
+                if (type >= PatternEvaluator.FOUR || threes > 0 && type >= PatternEvaluator.SPLIT_THREE) {
+                    if (count == moves.length) {
+                        moves = moveBuffer[ply] = Arrays.copyOf(moves, count * 2);
+                    }
+                    // 依型態由強到弱插入
+                    int j = count++;
+                    while (j > 0 && candidates.threat(state, moves[j - 1], attacker) < type) {
+                        moves[j] = moves[j - 1];
+                        j--;
+                    }
+                    moves[j] = cell;
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            boolean three = move != forced && candidates.threat(state, move, attacker) < PatternEvaluator.FOUR;
+            place(move, attacker);
+            boolean win = defend(ply + 1, pliesLeft - 1, three ? threes - 1 : threes);
+            undo(move);
+            if (aborted) {
+                return false;
+            }
+            if (win) {
+                return proven(ply, key, slot, move);
+            }
+        }
+        return disproven(key, slot, pliesLeft, level);
+    }
+
+    private boolean defend(int ply, int pliesLeft, int threes) {
+        if (++nodes > maxNodes) {
+            aborted = true;
+            return false;
+        }
+        int defender = state.toMove();
+        int attacker = GameState.opponent(defender);
+        int attackerFives = 0;
+        int block = -1;
+        boolean openFour = false;
+        for (int i = 0; i < candidates.size(); i++) {
+            int cell = candidates.get(i);
+            if (candidates.threat(state, cell, defender) == PatternEvaluator.FIVE) {
+                return false; // 守方先連成五
+            }
+            int type = candidates.threat(state, cell, attacker);
+            if (type == PatternEvaluator.FIVE) {
+                attackerFives++;
+                block = cell;
+            } else if (type == PatternEvaluator.OPEN_FOUR) {
+                openFour = true;
+            }
+        }
+        if (attackerFives > 1) {
+            return true;
+        }
+        if (pliesLeft <= 0 || ply >= maxPlies) {
+            return false;
+        }
+        if (attackerFives == 1) {
+            place(block, defender);
+            boolean win = attack(ply + 1, pliesLeft - 1, threes);
+            undo(block);
+            return win;
+        }
+        if (!allowThrees || !openFour) {
+            return false; // 攻方已失去先手
+        }
+        // 對方的活三：守方只能擋在攻方能成四的點，或以自己的四反擊
+        int[] replies = moveBuffer[ply];
+        int count = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            int cell = candidates.get(i);
+            if (candidates.threat(state, cell, attacker) >= PatternEvaluator.FOUR
+                    || candidates.threat(state, cell, defender) >= PatternEvaluator.FOUR) {
+                if (count == replies.length) {
+                    replies = moveBuffer[ply] = Arrays.copyOf(replies, count * 2);
+                }
+                replies[count++] = cell;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int reply = replies[i];
+            place(reply, defender);
+            boolean win = attack(ply + 1, pliesLeft - 1, threes);
+            undo(reply);
+            if (!win) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean proven(int ply, long key, int slot, int move) {
+        if (ply == 0) {
+            rootMove = move;
+        }
+        cacheKeys[slot] = key;
+        cacheValues[slot] = 1 | (long) move << 32;
+        return true;
+    }
+
+    private boolean disproven(long key, int slot, int pliesLeft, int level) {
+        if (!aborted) {
+            cacheKeys[slot] = key;
+            cacheValues[slot] = Math.min(level, 0xFF) << 1 | Math.min(pliesLeft, 0xFF) << 9;
+        }
+        return false;
+    }
+
+    private void place(int cell, int player) {
+        state.place(cell, player);
+        candidates.onPlace(state, cell);
+    }
+
+    private void undo(int cell) {
+        state.undo();
+        candidates.onUndo(state, cell);
+    }
+}
@@ -0,0 +1,237 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Headless round robin between {@link MoveStrategy} entrants, played on all
+ * cores. Every game starts from a few seeded random plies so deterministic
+ * strategies still meet varied positions; colours alternate between games.
+ */
+public final class Tournament {
+
+    private final int boardSize;
+    private final int winLength;
+    private final int openingPlies;
+    private final long seed;
+    private final int threads;
+
+    /**
+     * A named strategy factory; each worker thread gets its own instance,
+     * closed when the round robin that created it ends.
+     */
+    public static final class Entrant {
+        final String name;
+        private final Supplier<MoveStrategy> factory;
+        // 不用 ThreadLocal：執行緒池的執行緒拿不到 remove 的機會，實例要由 roundRobin 統一關閉
+        private final Map<Thread, MoveStrategy> strategies = new ConcurrentHashMap<>();
+
+        public Entrant(String name, Supplier<MoveStrategy> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        MoveStrategy strategy() {
+            return strategies.computeIfAbsent(Thread.currentThread(), thread -> factory.get());
+        }
+
+        void release() {
+            strategies.values().forEach(MoveStrategy::close);
+            strategies.clear();
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+
+    /** Running score of {@code first} against {@code second}; safe to read while games run. */
+    public static final class Pairing {
+        public final String first;
+        public final String second;
+        final LongAdder firstWins = new LongAdder();
+        final LongAdder secondWins = new LongAdder();
+        final LongAdder draws = new LongAdder();
+        final LongAdder forfeits = new LongAdder(); // 下了非法棋步而判負的局數
+        final AtomicLong finished = new AtomicLong(); // 回報進度用，每局各得到唯一的序號
+
+        Pairing(String first, String second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public long firstWins() {
+            return firstWins.sum();
+        }
+
+        public long secondWins() {
+            return secondWins.sum();
+        }
+
+        public long draws() {
+            return draws.sum();
+        }
+
+        public long forfeits() {
+            return forfeits.sum();
+        }
+
+        public long games() {
+            return firstWins() + secondWins() + draws();
+        }
+
+        /** Points per game for {@code first}, a draw counting half. */
+        public double score() {
+            long games = games();
+            return games == 0 ? 0.5 : (firstWins() + 0.5 * draws()) / games;
+        }
+
+        /** Elo difference of {@code first} over {@code second}. */
+        public double elo() {
+            return Tournament.elo(score());
+        }
+
+        /** Half-width of the 95% confidence interval of {@link #elo()}. */
+        public double eloMargin() {
+            long games = games();
+            if (games == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double s = score();
+            double w = (double) firstWins() / games;
+            double d = (double) draws() / games;
+            double l = (double) secondWins() / games;
+            double variance = w * (1 - s) * (1 - s) + d * (0.5 - s) * (0.5 - s) + l * s * s;
+            double error = 1.96 * Math.sqrt(variance / games);
+            return (Tournament.elo(s + error) - Tournament.elo(s - error)) / 2;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s vs %s: +%d -%d =%d forfeits=%d elo=%+.0f +/-%.0f",
+                    first, second, firstWins(), secondWins(), draws(), forfeits(), elo(), eloMargin());
+        }
+    }
+
+    public Tournament(int boardSize, int winLength, int openingPlies, long seed) {
+        this(boardSize, winLength, openingPlies, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Tournament(int boardSize, int winLength, int openingPlies, long seed, int threads) {
+        this.boardSize = boardSize;
+        this.winLength = winLength;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Plays {@code gamesPerPair} games for every pair of entrants. After every
+     * {@code reportEvery} finished games of a pair, {@code progress} receives
+     * its running totals (from a worker thread).
+     */
+    public List<Pairing> roundRobin(List<Entrant> entrants, int gamesPerPair, int reportEvery,
+                                    Consumer<Pairing> progress) {
+        List<Pairing> pairings = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int a = 0; a < entrants.size(); a++) {
+                for (int b = a + 1; b < entrants.size(); b++) {
+                    Entrant first = entrants.get(a);
+                    Entrant second = entrants.get(b);
+                    Pairing pairing = new Pairing(first.name, second.name);
+                    long pairSeed = seed ^ ((long) a << 32 | b);
+                    pool.submit(() -> IntStream.range(0, gamesPerPair).parallel().forEach(game -> {
+                        long finished = record(pairing, play(pairing, first, second, game, pairSeed));
+                        if (reportEvery > 0 && finished % reportEvery == 0) {
+                            progress.accept(pairing);
+                        }
+                    })).join();
+                    pairings.add(pairing);
+                }
+            }
+        } finally {
+            pool.shutdown();
+            entrants.forEach(Entrant::release);
+        }
+        return pairings;
+    }
+
+    // 回傳此局是該組合完成的第幾局
+    private static long record(Pairing pairing, int result) {
+        if (result > 0) {
+            pairing.firstWins.increment();
+        } else if (result < 0) {
+            pairing.secondWins.increment();
+        } else {
+            pairing.draws.increment();
+        }
+        return pairing.finished.incrementAndGet();
+    }
+
+    // 回傳 1：first 勝，-1：second 勝，0：和局；非法棋步判負並計入 forfeits
+    private int play(Pairing pairing, Entrant first, Entrant second, int game, long pairSeed) {
+        GameState state = new GameState(boardSize, winLength);
+        SplittableRandom random = new SplittableRandom(pairSeed + game / 2); // 同一開局雙方各執一次先手
+        for (int i = 0; i < openingPlies && !state.isFull(); i++) {
+            int cell;
+            do {
+                cell = random.nextInt(state.cells());
+            } while (!state.isEmpty(cell));
+            state.place(cell);
+            if (state.winningLine(cell) != WinLine.NONE) {
+                state.undo(); // 開局不直接分出勝負
+                break;
+            }
+        }
+        boolean firstIsX = game % 2 == 0;
+        while (!state.isFull()) {
+            boolean firstToMove = (state.toMove() == GameState.X) == firstIsX;
+            MoveStrategy strategy = (firstToMove ? first : second).strategy();
+            int cell = strategy.chooseMove(state);
+            if (cell < 0 || cell >= state.cells() || !state.isEmpty(cell)) {
+                pairing.forfeits.increment();
+                return firstToMove ? -1 : 1;
+            }
+            state.place(cell);
+            if (state.winningLine(cell) != WinLine.NONE) {
+                return firstToMove ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    static double elo(double score) {
+        double s = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    // 例：java org.example.Tournament 200 9 5
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : GameState.DEFAULT_SIZE;
+        int length = args.length > 2 ? Integer.parseInt(args[2]) : GameState.DEFAULT_WIN_LENGTH;
+        List<Entrant> entrants = List.of(
+                new Entrant("random", () -> new RandomStrategy(Thread.currentThread().getId())),
+                new Entrant("greedy", GreedyStrategy::new),
+                new Entrant("search-d4", () -> new SearchStrategy(4, 100)),
+                new Entrant("mcts-2000", () -> new MctsStrategy(2000, 100)));
+        Tournament tournament = new Tournament(size, length, 2, 42);
+        long start = System.nanoTime();
+        List<Pairing> pairings = tournament.roundRobin(entrants, games, Math.max(1, games / 4),
+                pairing -> System.out.println("  " + pairing));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = pairings.stream().mapToLong(Pairing::games).sum();
+        pairings.forEach(System.out::println);
+        System.out.printf("%d games in %.1fs, %.1f games/s%n", total, seconds, total / seconds);
+    }
+}
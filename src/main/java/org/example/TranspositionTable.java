@@ -0,0 +1,163 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, power-of-two transposition table in two primitive arrays.
+ * Replacement prefers deeper entries from the current search generation.
+ * Slots store {@code key ^ data}, so threads can share the table without
+ * locks: a torn or racing write just fails verification and reads as a miss.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1; // fail-high：真正分數 >= score
+    public static final int UPPER = 2; // fail-low：真正分數 <= score
+
+    /** Returned by {@link #probe(long)} when the key is not stored. */
+    public static final long MISS = 0L;
+
+    public static final int DEFAULT_ENTRIES = 1 << 16;
+    private static final int BYTES_PER_ENTRY = 16;
+
+    // data 欄位配置：score 32 bit | move+1 20 bit | depth 6 bit | bound 2 bit | generation 3 bit | valid 1 bit
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 52;
+    private static final int BOUND_SHIFT = 58;
+    private static final int GENERATION_SHIFT = 60;
+    private static final long VALID = 1L << 63;
+    private static final int MAX_DEPTH = 63;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    // Lazy SMP 的執行緒共用一張表；LongAdder 讓各執行緒寫各自的計數格，讀取時才加總
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    public TranspositionTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /** Creates a table with {@code entries} rounded down to a power of two. */
+    public TranspositionTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(2, entries));
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    public static TranspositionTable ofMegabytes(int megabytes) {
+        return new TranspositionTable((int) Math.min(1 << 30, (long) megabytes * (1 << 20) / BYTES_PER_ENTRY));
+    }
+
+    /** Starts a new search; older entries become preferred replacement victims. */
+    public void newSearch() {
+        generation = (generation + 1) & 0x7;
+    }
+
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if (entry != MISS && (keys[index] ^ entry) == key) {
+            hits.increment();
+            return entry;
+        }
+        if (entry != MISS) {
+            collisions.increment();
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    public void store(long key, int depth, int score, int bound, int move) {
+        int index = (int) key & mask;
+        long old = data[index];
+        boolean sameKey = old != MISS && (keys[index] ^ old) == key;
+        if (old != MISS && !sameKey && generation(old) == generation && depth(old) > depth) {
+            return; // 保留同一輪搜尋中較深的結果
+        }
+        int storedMove = move;
+        if (move < 0 && sameKey) {
+            storedMove = move(old); // 沒有新最佳步時沿用舊的
+        }
+        long entry = pack(depth, score, bound, storedMove, generation);
+        keys[index] = key ^ entry;
+        data[index] = entry;
+        stores.increment();
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    private static long pack(int depth, int score, int bound, int move, int generation) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) (move + 1) << MOVE_SHIFT)
+                | ((long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT)
+                | VALID;
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int move(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & 0xFFFFF) - 1;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & 0x7;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long memoryBytes() {
+        return (long) keys.length * BYTES_PER_ENTRY;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /** Probes that found the slot taken by a different position. */
+    public long collisions() {
+        return collisions.sum();
+    }
+
+    public long stores() {
+        return stores.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "tt entries=" + capacity() + " hits=" + hits() + " misses=" + misses()
+                + " collisions=" + collisions() + " stores=" + stores();
+    }
+}
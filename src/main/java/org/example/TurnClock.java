@@ -0,0 +1,262 @@
+package org.example;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel driven by one daemon thread: O(1) schedule and cancel,
+ * millisecond ticks, and no thread per game. Tasks run on the wheel thread,
+ * so they must be short and hand real work to their own executor or the EDT.
+ */
+public final class TurnClock implements AutoCloseable {
+
+    public static final long DEFAULT_TICK_MILLIS = 1;
+    public static final int DEFAULT_WHEEL_SIZE = 1024;
+    private static final long IDLE_PARK_NANOS = 100_000_000L;
+
+    private static volatile TurnClock shared;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos = System.nanoTime();
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LatencyHistogram drift = new LatencyHistogram();
+    private final LatencyHistogram callbacks = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick; // 只由 worker 執行緒讀寫
+
+    public TurnClock() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public TurnClock(long tickMillis, int wheelSize) {
+        this.tickNanos = Math.max(1, tickMillis) * 1_000_000L;
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.worker = new Thread(this::run, "turn-clock");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** The JVM-wide clock shared by every game and match. */
+    public static TurnClock shared() {
+        TurnClock clock = shared;
+        if (clock == null) {
+            synchronized (TurnClock.class) {
+                clock = shared;
+                if (clock == null) {
+                    clock = new TurnClock();
+                    shared = clock;
+                }
+            }
+        }
+        return clock;
+    }
+
+    /** Runs {@code task} on the wheel thread after {@code delayMillis}. */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long deadline = System.nanoTime() + Math.max(0, delayMillis) * 1_000_000L;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.add(timeout);
+        if (active.getAndIncrement() == 0) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    /** Creates a stopped per-turn countdown reporting every second. */
+    public Countdown countdown(int seconds, Countdown.Listener listener) {
+        return new Countdown(this, seconds, listener);
+    }
+
+    /** Number of scheduled, not yet expired or cancelled timeouts. */
+    public int activeTimeouts() {
+        return active.get();
+    }
+
+    /** How late timeouts fired relative to their deadline, in nanoseconds. */
+    public LatencyHistogram drift() {
+        return drift;
+    }
+
+    /** How long the expired tasks ran on the wheel thread, in nanoseconds. */
+    public LatencyHistogram callbacks() {
+        return callbacks;
+    }
+
+    /** Expired tasks that threw; the wheel keeps running after them. */
+    public long failedCallbacks() {
+        return failures.sum();
+    }
+
+    // 給監控用：不因查詢而啟動共用時鐘
+    static TurnClock sharedIfStarted() {
+        return shared;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            if (active.get() == 0 && pending.isEmpty() && cancelled.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                tick = (System.nanoTime() - startNanos) / tickNanos; // 閒置時輪子是空的，直接跳到現在
+                continue;
+            }
+            long wake = startNanos + (tick + 1) * tickNanos;
+            long sleep = wake - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            tick++;
+            removeCancelled();
+            transferPending();
+            expire(wheel[(int) tick & mask]);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() != Timeout.WAITING) {
+                continue;
+            }
+            long deadlineTick = (timeout.deadline - startNanos + tickNanos - 1) / tickNanos;
+            long target = Math.max(deadlineTick, tick);
+            timeout.rounds = (target - tick) / wheel.length;
+            wheel[(int) target & mask].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds <= 0) {
+                bucket.remove(timeout);
+                if (timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+                    active.decrementAndGet();
+                    long started = System.nanoTime();
+                    drift.record(started - timeout.deadline);
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        failures.increment(); // 單一工作失敗不能讓時鐘停擺
+                    }
+                    callbacks.record(System.nanoTime() - started);
+                }
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    // 每格一條雙向鏈結串列，只由 worker 執行緒操作
+    private static final class Bucket {
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    /** Handle to one scheduled task. */
+    public static final class Timeout {
+        static final int WAITING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        private final TurnClock clock;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long rounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        Timeout(TurnClock clock, Runnable task, long deadline) {
+            this.clock = clock;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /** Cancels the task; returns false if it already ran or was cancelled. */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            clock.active.decrementAndGet();
+            clock.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /** Milliseconds left until the deadline (negative once overdue). */
+        public long remainingMillis() {
+            return (deadline - System.nanoTime()) / 1_000_000L;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+/**
+ * Packs a winning segment (start cell, direction, length) into one long so
+ * win checks never allocate. Directions index {@link GameState#DR}/DC.
+ */
+public final class WinLine {
+
+    public static final long NONE = -1L;
+
+    private WinLine() {
+    }
+
+    public static long pack(int start, int direction, int length) {
+        return (start & 0xFFFFFFFFL) | ((long) direction << 32) | ((long) length << 34);
+    }
+
+    public static int start(long line) {
+        return (int) line;
+    }
+
+    public static int direction(long line) {
+        return (int) (line >>> 32) & 0x3;
+    }
+
+    public static int length(long line) {
+        return (int) (line >>> 34);
+    }
+
+    /** Returns the i-th cell of the segment, counting from its start. */
+    public static int cellAt(GameState state, long line, int i) {
+        int dir = direction(line);
+        int start = start(line);
+        return state.cell(state.row(start) + i * GameState.DR[dir],
+                state.col(start) + i * GameState.DC[dir]);
+    }
+}
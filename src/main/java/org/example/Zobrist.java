@@ -0,0 +1,26 @@
+package org.example;
+
+/**
+ * 64-bit Zobrist keys. Each (player, cell) key is derived with SplitMix64
+ * instead of a lookup table, so the keys are fixed across runs and JVMs.
+ */
+public final class Zobrist {
+
+    /** XOR-ed into the hash while O is to move. */
+    public static final long SIDE = mix(0x5DEECE66DL);
+
+    private Zobrist() {
+    }
+
+    public static long key(int player, int cell) {
+        return mix(((long) cell << 2) | player);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long seed) {
+        long z = seed * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E5F9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisCacheTest {
+
+    @Test
+    void testSymmetricPositionsShareAnEntry() {
+        AnalysisCache cache = new AnalysisCache(1024);
+        GameState state = new GameState();
+        state.place(state.cell(1, 2));
+        state.place(state.cell(4, 4));
+        cache.put(state, new SearchResult(state.cell(1, 3), 42, 5, 1000, 1));
+
+        GameState rotated = new GameState();
+        rotated.place(Symmetry.apply(1, state.cell(1, 2), 9));
+        rotated.place(Symmetry.apply(1, state.cell(4, 4), 9));
+        SearchResult hit = cache.get(rotated);
+        assertNotNull(hit);
+        assertEquals(Symmetry.apply(1, state.cell(1, 3), 9), hit.bestMove);
+        assertEquals(42, hit.score);
+        assertEquals(5, hit.depth);
+
+        // 淺的結果不覆蓋深的
+        cache.put(rotated, new SearchResult(0, -7, 2, 10, 1));
+        assertEquals(42, cache.get(state).score);
+        // 換手或換棋盤大小都是不同的局面
+        state.setToMove(GameState.O);
+        assertNull(cache.get(state));
+        GameState larger = new GameState(15, 5);
+        larger.place(larger.cell(1, 2));
+        larger.place(larger.cell(4, 4));
+        assertNull(cache.get(larger));
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(0.5, cache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    void testShallowEntryDoesNotSatisfyDeeperRequest() {
+        AnalysisCache cache = new AnalysisCache(1024);
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        cache.put(state, new SearchResult(state.cell(3, 3), 10, 2, 100, 1));
+        assertNull(cache.get(state, 6));
+        assertEquals(2, cache.get(state, 2).depth);
+        assertEquals(1, cache.misses());
+        // 較深的結果取代淺的之後就能命中
+        cache.put(state, new SearchResult(state.cell(3, 4), 12, 6, 1000, 1));
+        assertEquals(state.cell(3, 4), cache.get(state, 6).bestMove);
+        // 已證明的勝負不會因為更深而改變
+        state.place(state.cell(0, 0));
+        cache.put(state, new SearchResult(state.cell(5, 5), SearchEngine.WIN_SCORE - 3, 2, 10, 1));
+        assertNotNull(cache.get(state, 6));
+    }
+
+    @Test
+    void testBoundedUnderConcurrentUse() {
+        AnalysisCache cache = new AnalysisCache(256);
+        IntStream.range(0, 4000).parallel().forEach(i -> {
+            GameState state = new GameState();
+            state.place(i % 81);
+            state.place((i / 81 + 1 + i % 81) % 81);
+            cache.put(state, new SearchResult(i % 81 == 0 ? 1 : 0, i, 1, 1, 1));
+            cache.get(state);
+        });
+        assertTrue(cache.size() <= 256, "size=" + cache.size());
+        assertTrue(cache.evictions() > 0);
+        assertEquals(4000, cache.hits() + cache.misses());
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEvaluatorTest {
+
+    @Test
+    void testMatchesSingleEvaluation() {
+        Random random = new Random(7);
+        PositionBatch batch = new PositionBatch(9, 5);
+        GameState[] games = new GameState[50];
+        for (int g = 0; g < games.length; g++) {
+            GameState state = new GameState();
+            for (int i = 0; i < 5 + random.nextInt(30); i++) {
+                int cell;
+                do {
+                    cell = random.nextInt(state.cells());
+                } while (!state.isEmpty(cell));
+                state.place(cell);
+            }
+            games[g] = state;
+            batch.addGame(state, g % 4); // 部分序列跳過開頭幾步
+        }
+        batch.addAll(Stream.of(new GameState(), games[0]));
+
+        int[] scores;
+        try (BatchEvaluator evaluator = new BatchEvaluator(4, PatternEvaluator::new)) {
+            scores = evaluator.evaluate(batch);
+        }
+        assertEquals(batch.positions(), scores.length);
+        PatternEvaluator single = new PatternEvaluator();
+        int next = 0;
+        for (int g = 0; g < games.length; g++) {
+            for (int ply = g % 4; ply <= games[g].moveCount(); ply++) {
+                assertEquals(score(single, games[g], ply), scores[next++], "game " + g + " ply " + ply);
+            }
+        }
+        assertEquals(0, scores[next++]);
+        assertEquals(score(single, games[0], games[0].moveCount()), scores[next++]);
+        assertEquals(scores.length, next);
+    }
+
+    @Test
+    void testRejectsOtherBoards() {
+        PositionBatch batch = new PositionBatch(9, 5);
+        assertThrows(IllegalArgumentException.class, () -> batch.add(new GameState(15, 5)));
+        try (BatchEvaluator evaluator = new BatchEvaluator()) {
+            assertEquals(0, evaluator.evaluate(batch).length);
+        }
+    }
+
+    private static int score(PatternEvaluator evaluator, GameState game, int ply) {
+        GameState prefix = new GameState(game.size(), game.winLength());
+        for (int i = 0; i < ply; i++) {
+            int cell = game.moveAt(i);
+            prefix.place(cell, game.get(cell));
+        }
+        evaluator.reset(prefix);
+        return evaluator.evaluate(prefix, GameState.X);
+    }
+}
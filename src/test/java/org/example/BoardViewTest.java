@@ -0,0 +1,68 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardViewTest {
+
+    @Test
+    void testMapsPointsAndClicksToCells() {
+        GameState state = new GameState(19, 5);
+        List<Integer> clicks = new ArrayList<>();
+        BoardView view = new BoardView(state, (row, col) -> clicks.add(state.cell(row, col)));
+        view.setSize(400, 380); // 每格 20 像素，左右各留 10
+        assertEquals(-1, view.cellAt(5, 5));
+        assertEquals(state.cell(0, 0), view.cellAt(10, 0));
+        assertEquals(state.cell(18, 18), view.cellAt(389, 379));
+        assertEquals(-1, view.cellAt(390, 100));
+        assertEquals(new Rectangle(10 + 3 * 20, 2 * 20, 20, 20), view.cellBounds(state.cell(2, 3)));
+        view.doClick(2, 3);
+        assertEquals(List.of(state.cell(2, 3)), clicks);
+        state.place(state.cell(2, 3), GameState.O);
+        assertEquals("O", view.getText(2, 3));
+        assertEquals("", view.getText(3, 2));
+    }
+
+    @Test
+    void testPaintsHintAndWinningLine() {
+        GameState state = new GameState();
+        BoardView view = new BoardView(state, (row, col) -> { });
+        view.setSize(90, 90);
+        for (int col = 0; col < 5; col++) {
+            state.place(state.cell(4, col), GameState.X);
+        }
+        view.setWinningLine(state.winningLine(state.cell(4, 4)));
+        view.setHint(state.cell(0, 0));
+        BufferedImage image = new BufferedImage(90, 90, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        view.paint(g);
+        g.dispose();
+        assertEquals(Color.RED.getRGB(), image.getRGB(5, 5)); // 提示格整格變色
+        assertTrue(hasRed(image, view.cellBounds(state.cell(4, 2))));
+        assertFalse(hasRed(image, view.cellBounds(state.cell(3, 2))));
+        view.refresh();
+        assertEquals(-1, view.hintCell());
+        assertEquals(WinLine.NONE, view.winningLine());
+    }
+
+    // 字形有反鋸齒，只要求明顯偏紅的像素
+    private static boolean hasRed(BufferedImage image, Rectangle bounds) {
+        for (int y = bounds.y; y < bounds.y + bounds.height; y++) {
+            for (int x = bounds.x; x < bounds.x + bounds.width; x++) {
+                Color color = new Color(image.getRGB(x, y));
+                if (color.getRed() > 150 && color.getGreen() < 100) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
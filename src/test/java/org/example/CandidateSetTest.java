@@ -0,0 +1,106 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidateSetTest {
+
+    @Test
+    void testMatchesBruteForceThroughPlaceAndUndo() {
+        GameState state = new GameState(15, 5);
+        CandidateSet candidates = new CandidateSet();
+        candidates.reset(state);
+        assertTrue(candidates.isEmpty());
+        SplittableRandom random = new SplittableRandom(5);
+        for (int step = 0; step < 2000; step++) {
+            if (state.moveCount() > 0 && (random.nextInt(3) == 0 || state.isFull())) {
+                int cell = state.undo();
+                candidates.onUndo(state, cell);
+            } else {
+                int cell;
+                do {
+                    cell = random.nextInt(state.cells());
+                } while (!state.isEmpty(cell));
+                state.place(cell);
+                candidates.onPlace(state, cell);
+            }
+            assertEquals(bruteForce(state), members(candidates), "step " + step);
+        }
+    }
+
+    @Test
+    void testResetClearsOnlyWhatThePreviousPositionTouched() {
+        CandidateSet candidates = new CandidateSet();
+        SplittableRandom random = new SplittableRandom(9);
+        for (int round = 0; round < 50; round++) {
+            GameState state = new GameState(15, 5);
+            int stones = random.nextInt(30);
+            for (int i = 0; i < stones; i++) {
+                int cell;
+                do {
+                    cell = random.nextInt(state.cells());
+                } while (!state.isEmpty(cell));
+                state.place(cell);
+            }
+            candidates.reset(state);
+            assertEquals(bruteForce(state), members(candidates), "round " + round);
+            for (int cell = 0; cell < state.cells(); cell++) {
+                if (state.isEmpty(cell)) {
+                    // 上一局留下的計數或威脅快取不能殘留
+                    assertEquals(candidates.contains(cell), candidates.stonesAround(cell) > 0);
+                    assertEquals(PatternEvaluator.threat(state, cell, GameState.X),
+                            candidates.threat(state, cell, GameState.X));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testThreatCacheFollowsMoves() {
+        GameState state = new GameState();
+        CandidateSet candidates = new CandidateSet();
+        candidates.reset(state);
+        for (int col = 0; col < 4; col++) {
+            state.place(state.cell(4, col), GameState.X);
+            candidates.onPlace(state, state.cell(4, col));
+        }
+        int five = state.cell(4, 4);
+        assertEquals(PatternEvaluator.FIVE, candidates.threat(state, five, GameState.X));
+        assertEquals(PatternEvaluator.threat(state, five, GameState.O), candidates.threat(state, five, GameState.O));
+        int cell = state.undo();
+        candidates.onUndo(state, cell);
+        assertEquals(PatternEvaluator.threat(state, five, GameState.X), candidates.threat(state, five, GameState.X));
+        assertNotEquals(PatternEvaluator.FIVE, candidates.threat(state, five, GameState.X));
+    }
+
+    private static Set<Integer> bruteForce(GameState state) {
+        Set<Integer> expected = new HashSet<>();
+        for (int cell = 0; cell < state.cells(); cell++) {
+            if (!state.isEmpty(cell)) {
+                continue;
+            }
+            for (int dr = -2; dr <= 2; dr++) {
+                for (int dc = -2; dc <= 2; dc++) {
+                    int r = state.row(cell) + dr;
+                    int c = state.col(cell) + dc;
+                    if (state.isOnBoard(r, c) && !state.isEmpty(state.cell(r, c))) {
+                        expected.add(cell);
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static Set<Integer> members(CandidateSet candidates) {
+        Set<Integer> actual = new HashSet<>();
+        candidates.iterator().forEachRemaining((int cell) -> actual.add(cell));
+        assertEquals(candidates.size(), actual.size());
+        return actual;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanonicalBoardTest {
+
+    @Test
+    void testSymmetricPositionsShareOneCanonicalBoard() {
+        Random random = new Random(5);
+        GameState state = new GameState(11, 5);
+        for (int i = 0; i < 15; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(state.cells());
+            } while (!state.isEmpty(cell));
+            state.place(cell);
+        }
+        CanonicalBoard canonical = CanonicalBoard.of(state);
+        int[][] table = Symmetry.table(11);
+        PositionBatch batch = new PositionBatch(11, 5);
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            GameState image = new GameState(11, 5);
+            for (int i = 0; i < state.moveCount(); i++) {
+                image.place(table[t][state.moveAt(i)]);
+            }
+            CanonicalBoard other = CanonicalBoard.of(image);
+            assertEquals(canonical, other, "transform " + t);
+            assertEquals(canonical.zobrist(), other.zobrist());
+            // 原盤上的一步與對應盤上的同一步映到同一個標準格
+            int move = state.moveAt(3);
+            assertEquals(canonical.toCanonical(move), other.toCanonical(table[t][move]));
+            assertEquals(table[t][move], other.toOriginal(canonical.toCanonical(move)));
+            assertEquals(t == 0, batch.addDistinct(image));
+        }
+        assertEquals(1, batch.positions());
+        for (int cell = 0; cell < state.cells(); cell++) {
+            assertEquals(state.get(cell), canonical.get(canonical.toCanonical(cell)));
+        }
+    }
+
+    @Test
+    void testLargeBoardMapsCellsWithoutTables() {
+        int size = 101;
+        assertNull(Symmetry.map(1, size)); // 不為大棋盤建表
+        GameState state = new GameState(size, 5);
+        state.place(state.cell(3, 90));
+        state.place(state.cell(50, 50));
+        state.place(state.cell(99, 2));
+        CanonicalBoard canonical = CanonicalBoard.of(state);
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            GameState image = new GameState(size, 5);
+            for (int i = 0; i < state.moveCount(); i++) {
+                image.place(Symmetry.apply(t, state.moveAt(i), size));
+            }
+            assertEquals(canonical, CanonicalBoard.of(image), "transform " + t);
+            assertEquals(image.hash(), Symmetry.hash(state, t));
+        }
+        int move = state.cell(10, 20);
+        assertEquals(move, canonical.toOriginal(canonical.toCanonical(move)));
+    }
+
+    @Test
+    void testBytesRoundTrip() {
+        GameState state = new GameState(15, 5);
+        state.place(state.cell(7, 7));
+        state.place(state.cell(7, 8));
+        state.place(state.cell(0, 14));
+        CanonicalBoard canonical = CanonicalBoard.of(state);
+        byte[] bytes = canonical.toBytes();
+        assertEquals(4 + 16 * 4, bytes.length);
+        GameState decoded = CanonicalBoard.fromBytes(bytes);
+        assertEquals(3, decoded.moveCount());
+        assertEquals(GameState.O, decoded.toMove());
+        assertEquals(canonical, CanonicalBoard.of(decoded));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testMoveLogWidths() {
+        assertEquals(1, MoveLog.bytesPerMove(81));
+        assertEquals(1, MoveLog.bytesPerMove(256));
+        assertEquals(2, MoveLog.bytesPerMove(19 * 19));
+        assertEquals(3, MoveLog.bytesPerMove(1024 * 1024));
+        MoveLog log = new MoveLog(1024 * 1024);
+        log.add(1024 * 1024 - 1);
+        log.add(70_000);
+        assertEquals(6, log.encodedLength());
+        assertEquals(70_000, log.removeLast());
+        assertEquals(1024 * 1024 - 1, log.last());
+        assertEquals(1, log.size());
+    }
+
+    @Test
+    void testAppendAndReopenAcrossWindows() throws IOException {
+        GameState state = new GameState();
+        for (int col = 0; col < 4; col++) {
+            state.place(state.cell(0, col));
+            state.place(state.cell(1, col));
+        }
+        state.place(state.cell(0, 4));
+        // 每個視窗只放得下兩局，逼紀錄換到下一個視窗
+        try (GameArchive archive = GameArchive.open(dir, 48)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, archive.append(state, GameState.X));
+            }
+        }
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertEquals(5, archive.size());
+            List<Integer> winners = new ArrayList<>();
+            archive.forEach(3, game -> winners.add(game.winner));
+            assertEquals(List.of(GameState.X, GameState.X), winners);
+            GameArchive.GameRecord game = archive.get(4);
+            assertEquals(9, game.moveCount);
+            assertEquals(state.cell(0, 4), game.move(8));
+            assertEquals(state.hash(), game.replay().hash());
+        }
+    }
+
+    @Test
+    void testSameDirectorySharesOneArchive() throws IOException {
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        GameArchive first = GameArchive.open(dir);
+        GameArchive second = GameArchive.open(dir.resolve(".").resolve("..").resolve(dir.getFileName()));
+        assertSame(first, second);
+        // 兩個視窗各自附加，不能寫到同一個位置
+        assertEquals(0, first.append(state, GameState.EMPTY));
+        assertEquals(1, second.append(state, GameState.X));
+        first.close();
+        assertEquals(GameState.X, second.get(1).winner); // 還有人在用，檔案不能關
+        second.close();
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertNotSame(first, archive);
+            assertEquals(2, archive.size());
+            assertEquals(GameState.EMPTY, archive.get(0).winner);
+        }
+    }
+
+    @Test
+    void testTimeoutColorsSurvive() throws IOException {
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        state.passTurn(); // O 逾時，X 連下兩手
+        state.place(state.cell(4, 5));
+        try (GameArchive archive = GameArchive.open(dir)) {
+            archive.append(state, GameState.EMPTY);
+            GameArchive.GameRecord game = archive.get(0);
+            assertEquals(GameState.X, game.player(1));
+            assertEquals(state.hash(), game.replay().hash());
+        }
+    }
+}
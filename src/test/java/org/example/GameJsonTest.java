@@ -0,0 +1,83 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJsonTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testMatchRoundTrip() throws IOException {
+        Match match = new Match(0, 9, 5);
+        match.play(40);
+        match.timeUp(); // O 逾時，顏色不再交替
+        match.play(41);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameJson.writeMatch(new SavedMatch(match.state(), 2, 1, 1), out);
+
+        SavedMatch loaded = GameJson.readMatch(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(match.state().hash(), loaded.state.hash());
+        assertEquals(GameState.X, loaded.state.get(41));
+        assertEquals(GameState.O, loaded.state.toMove());
+        Match resumed = new Match(1, loaded);
+        assertEquals(2, resumed.xWins());
+        assertEquals(1, resumed.oWins());
+        assertEquals(1, resumed.draws());
+        assertFalse(resumed.isFinished());
+    }
+
+    @Test
+    void testRejectsOccupiedCell() {
+        byte[] json = "{\"size\":9,\"winLength\":5,\"moves\":[3,3]}".getBytes();
+        assertThrows(IOException.class, () -> GameJson.readMatch(new ByteArrayInputStream(json)));
+    }
+
+    @Test
+    void testRejectsEmptySideToMove() {
+        byte[] json = "{\"size\":9,\"winLength\":5,\"moves\":[3],\"toMove\":\"-\"}".getBytes();
+        assertThrows(IOException.class, () -> GameJson.readMatch(new ByteArrayInputStream(json)));
+    }
+
+    @Test
+    void testExportImportResumesAfterTruncation() throws IOException {
+        byte[] exported;
+        try (GameArchive source = GameArchive.open(dir.resolve("source"))) {
+            for (int g = 0; g < 10; g++) {
+                GameState state = new GameState();
+                for (int i = 0; i <= g; i++) {
+                    state.place(i * 3 % 81);
+                }
+                source.append(state, g % 3);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(7, GameJson.exportArchive(source, 3, out));
+            exported = out.toByteArray();
+        }
+        try (GameArchive target = GameArchive.open(dir.resolve("target"))) {
+            // 傳到一半中斷：只收下完整的對局
+            byte[] cut = Arrays.copyOf(exported, exported.length * 2 / 3);
+            long done = GameJson.importArchive(new ByteArrayInputStream(cut), 0, target);
+            assertTrue(done > 0 && done < 7, "done=" + done);
+            assertEquals(done, target.size());
+            // 從中斷處接續
+            assertEquals(7, GameJson.importArchive(new ByteArrayInputStream(exported), done, target));
+            assertEquals(7, target.size());
+            byte[] broken = "{\"games\":[{\"moves\":[1,1]}]}".getBytes();
+            assertThrows(IOException.class, () -> GameJson.importArchive(new ByteArrayInputStream(broken), 0, target));
+            for (int i = 0; i < 7; i++) {
+                assertEquals(i + 4, target.get(i).moveCount);
+                assertEquals((i + 3) % 3, target.get(i).winner);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLogTest {
+
+    @Test
+    void testSeekMatchesLiveReplay() {
+        Random random = new Random(11);
+        GameLog log = new GameLog(15, 5, 16);
+        GameState live = new GameState(15, 5);
+        long[] hashes = new long[2000];
+        int[] scores = new int[2000];
+        int xWins = 0;
+        int oWins = 0;
+        hashes[0] = live.hash();
+        for (int e = 1; e < hashes.length; e++) {
+            int roll = random.nextInt(20);
+            if (roll == 0 && live.moveCount() > 0) {
+                int winner = random.nextBoolean() ? GameState.X : GameState.O;
+                log.roundEnd(winner);
+                xWins += winner == GameState.X ? 1 : 0;
+                oWins += winner == GameState.O ? 1 : 0;
+                live.clear();
+            } else if (roll < 4 && live.moveCount() > 0) {
+                log.undo();
+                live.undo();
+            } else if (roll == 4) {
+                log.timeout();
+                live.passTurn();
+            } else {
+                int cell;
+                do {
+                    cell = random.nextInt(live.cells());
+                } while (!live.isEmpty(cell));
+                log.move(cell, live.toMove());
+                live.place(cell); // 每局平均不到二十步，棋盤不會下滿
+            }
+            hashes[e] = live.hash();
+            scores[e] = xWins * 1000 + oWins;
+        }
+        assertEquals(hashes.length - 1, log.events());
+        assertTrue(log.snapshots() > 100);
+        GameLog.Position position = new GameLog.Position(15, 5);
+        for (int i = 0; i < 300; i++) {
+            int e = random.nextInt(hashes.length);
+            log.seek(e, position);
+            assertEquals(hashes[e], position.state.hash(), "event " + e);
+            assertEquals(scores[e], position.xWins * 1000 + position.oWins, "event " + e);
+        }
+    }
+
+    @Test
+    void testSeekRoundAndPlyAndRedo() {
+        GameLog log = new GameLog(9, 5, 4);
+        log.move(40, GameState.X);
+        log.move(41, GameState.O);
+        log.undo();
+        assertEquals(41, log.redoCell());
+        log.move(30, GameState.O); // 走了別的棋，不能再重做
+        assertEquals(-1, log.redoCell());
+        log.move(50, GameState.X);
+        log.roundEnd(GameState.X);
+        log.move(10, GameState.X);
+        log.timeout();
+        log.move(11, GameState.X);
+        assertEquals(2, log.rounds());
+
+        GameLog.Position position = new GameLog.Position(9, 5);
+        log.seek(0, 2, position);
+        assertEquals(GameState.O, position.state.get(30)); // 最後的棋步，不是被悔掉的 41
+        assertEquals(GameState.EMPTY, position.state.get(41));
+        log.seek(0, 3, position);
+        assertEquals(GameState.X, position.state.get(50));
+        log.seek(1, 0, position);
+        assertEquals(0, position.state.moveCount());
+        assertEquals(1, position.xWins);
+        log.seek(1, 2, position);
+        assertEquals(GameState.X, position.state.get(11));
+        assertEquals(1, position.round);
+        assertThrows(IllegalArgumentException.class, () -> log.seek(0, 4, position));
+    }
+}
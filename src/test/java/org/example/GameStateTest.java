@@ -0,0 +1,142 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateTest {
+
+    @Test
+    void testPlaceAndGet() {
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        state.place(state.cell(8, 8));
+        // Stones land for alternating players, including the last word of the bitboard
+        assertEquals(GameState.X, state.get(4, 4));
+        assertEquals(GameState.O, state.get(8, 8));
+        assertEquals(GameState.EMPTY, state.get(0, 0));
+        assertEquals(GameState.X, state.toMove());
+        assertEquals(2, state.moveCount());
+    }
+
+    @Test
+    void testUndoRestoresTurn() {
+        GameState state = new GameState();
+        state.place(state.cell(0, 0));
+        state.passTurn();
+        state.place(state.cell(0, 1));
+        // After a pass X moved twice, so undo gives the turn back to X
+        assertEquals(state.cell(0, 1), state.undo());
+        assertEquals(GameState.X, state.toMove());
+        assertTrue(state.isEmpty(state.cell(0, 1)));
+        assertEquals(state.cell(0, 0), state.undo());
+        assertEquals(-1, state.undo());
+    }
+
+    @Test
+    void testIllegalPlace() {
+        GameState state = new GameState();
+        state.place(state.cell(3, 3));
+        assertThrows(IllegalArgumentException.class, () -> state.place(state.cell(3, 3)));
+    }
+
+    @Test
+    void testFullAndClear() {
+        GameState state = new GameState();
+        for (int cell = 0; cell < state.cells(); cell++) {
+            state.place(cell);
+        }
+        assertTrue(state.isFull());
+        GameState copy = state.copy();
+        state.clear();
+        assertEquals(0, state.moveCount());
+        assertTrue(copy.isFull());
+        assertEquals(GameState.O, copy.get(state.cells() - 2));
+    }
+
+    @Test
+    void testWinningLineInEveryDirection() {
+        int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] step : steps) {
+            GameState state = new GameState();
+            int startCol = step[1] < 0 ? 8 : 0;
+            for (int i = 0; i < state.winLength(); i++) {
+                state.place(state.cell(step[0] == 0 ? 4 : i, startCol + i * step[1]), GameState.X);
+            }
+            // The last stone completes the line; the segment covers all five stones
+            long line = state.winningLine(state.lastMove());
+            assertNotEquals(WinLine.NONE, line);
+            assertEquals(state.winLength(), WinLine.length(line));
+            for (int i = 0; i < WinLine.length(line); i++) {
+                assertEquals(GameState.X, state.get(WinLine.cellAt(state, line, i)));
+            }
+        }
+    }
+
+    @Test
+    void testNoWinAcrossRowWrap() {
+        GameState state = new GameState();
+        // (0,6),(0,7),(0,8) and (1,0),(1,1) are adjacent cell indices but not a line
+        int[] cells = {state.cell(0, 6), state.cell(0, 7), state.cell(0, 8),
+                state.cell(1, 0), state.cell(1, 1)};
+        for (int cell : cells) {
+            state.place(cell, GameState.O);
+        }
+        for (int cell : cells) {
+            assertEquals(WinLine.NONE, state.winningLine(cell));
+        }
+        assertFalse(state.wouldWin(state.cell(1, 2), GameState.O));
+        assertFalse(state.wouldWin(state.cell(0, 5), GameState.O));
+    }
+
+    @Test
+    void testWouldWinFillsGap() {
+        GameState state = new GameState();
+        for (int col : new int[] {2, 3, 5, 6}) {
+            state.place(state.cell(7, col), GameState.X);
+        }
+        assertTrue(state.wouldWin(state.cell(7, 4), GameState.X));
+        assertFalse(state.wouldWin(state.cell(7, 4), GameState.O));
+    }
+
+    @Test
+    void testHashFollowsTranspositionsAndUndo() {
+        GameState a = new GameState();
+        GameState b = new GameState();
+        a.place(a.cell(1, 1));
+        a.place(a.cell(2, 2));
+        a.place(a.cell(3, 3));
+        b.place(b.cell(3, 3));
+        b.place(b.cell(2, 2));
+        b.place(b.cell(1, 1));
+        assertEquals(a.hash(), b.hash());
+        a.undo();
+        a.undo();
+        a.undo();
+        assertEquals(0L, a.hash());
+        // Same stones with a different side to move hash differently
+        long before = b.hash();
+        b.passTurn();
+        assertNotEquals(before, b.hash());
+        b.passTurn();
+        assertEquals(before, b.hash());
+    }
+
+    @Test
+    void testLargeBoardAndCustomWinLength() {
+        GameState state = new GameState(19, 6);
+        for (int i = 0; i < 5; i++) {
+            state.place(state.cell(18 - i, i), GameState.O);
+        }
+        // Five is not enough when six are needed
+        assertEquals(WinLine.NONE, state.winningLine(state.lastMove()));
+        state.place(state.cell(13, 5), GameState.O);
+        long line = state.winningLine(state.lastMove());
+        assertEquals(6, WinLine.length(line));
+        assertEquals(GameState.DC.length - 1, WinLine.direction(line));
+        assertThrows(IllegalArgumentException.class, () -> new GameState(5, 6));
+        assertThrows(IllegalArgumentException.class, () -> GameState.checkDimensions(GameState.MAX_SIZE + 1, 5));
+        GameState.checkDimensions(GameState.MAX_SIZE, 5);
+        assertThrows(IllegalArgumentException.class, () -> state.copyFrom(new GameState()));
+    }
+}
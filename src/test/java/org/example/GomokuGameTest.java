@@ -37,10 +37,10 @@ class GomokuGameTest {
         int col=0;
         for(int i=10;i>0;i--){
             if(game.currentPlayer == 'X') {
-                game.board[0][col].doClick();
+                game.board.doClick(0, col);
                 col++;
             }else{
-                game.board[1][col].doClick();
+                game.board.doClick(1, col);
             }
         }
         // Assert X wins
@@ -55,13 +55,13 @@ class GomokuGameTest {
         for(int i=10;i>0;i--){
             if(game.currentPlayer == 'X') {
                 if(row<3){
-                    game.board[row][0].doClick();
+                    game.board.doClick(row, 0);
                 }else{
-                    game.board[row][2].doClick();
+                    game.board.doClick(row, 2);
                 }
                 row++;
             }else{
-                game.board[row][1].doClick();
+                game.board.doClick(row, 1);
             }
         }
         // Assert O wins
@@ -76,13 +76,13 @@ class GomokuGameTest {
         for(int i=10;i>0;i--){
             if(game.currentPlayer == 'X') {
                 if(row<3){
-                    game.board[row][0].doClick();
+                    game.board.doClick(row, 0);
                 }else{
-                    game.board[row][2].doClick();
+                    game.board.doClick(row, 2);
                 }
                 row++;
             }else{
-                game.board[row][row].doClick();
+                game.board.doClick(row, row);
             }
         }
         // Assert O wins
@@ -97,21 +97,21 @@ class GomokuGameTest {
         boolean currentPlayerIsX = true;
         for (int j = 0; j < 9; j++) {
             game.currentPlayer = currentPlayerIsX ? 'X' : 'O';
-            game.board[j][0].doClick();
+            game.board.doClick(j, 0);
             currentPlayerIsX = !currentPlayerIsX;
         }
         for(int i=0;i<6;i++){
             for(int k=1;k<9;k++){
                 if(i<3) {
-                    game.board[i][k].doClick();
+                    game.board.doClick(i, k);
                 }else{
-                    game.board[i+3][k].doClick();
+                    game.board.doClick(i+3, k);
                 }
             }
         }
         for(int i=0;i<3;i++){
             for(int k=8;k>0;k--){
-                game.board[i+3][k].doClick();
+                game.board.doClick(i+3, k);
             }
         }
         // Assert draw
@@ -127,13 +127,13 @@ class GomokuGameTest {
             for(int j=10;j>0;j--){
                 if(game.currentPlayer == 'X') {
                     if(row<3){
-                        game.board[row][3].doClick();
+                        game.board.doClick(row, 3);
                     }else{
-                        game.board[row][6].doClick();
+                        game.board.doClick(row, 6);
                     }
                     row++;
                 }else{
-                    game.board[row][5].doClick();
+                    game.board.doClick(row, 5);
                 }
             }
             if (i < 2) {
@@ -154,14 +154,14 @@ class GomokuGameTest {
         char lastPlayer ='X';
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 4; j++) {
-                game.board[i][j].doClick();
+                game.board.doClick(i, j);
                 if (i == 3 - 1 && j == 4 - 2) {
                     lastPlayer = game.currentPlayer;
                 }
             }
         }
         game.undoMove();
-        assertEquals("", game.board[3][4].getText());
+        assertEquals("", game.board.getText(3, 4));
         assertEquals(lastPlayer, game.currentPlayer);
         assertFalse(game.gameWon);
     }
@@ -170,34 +170,34 @@ class GomokuGameTest {
     @Order(7)
     void testIllegalMove() {
         // Simulate X placing a stone
-        game.board[0][0].doClick();
-        game.board[0][0].doClick();
+        game.board.doClick(0, 0);
+        game.board.doClick(0, 0);
         // Assert the spot is not overwritten
-        assertEquals("X", game.board[0][0].getText());
+        assertEquals("X", game.board.getText(0, 0));
     }
 
     @Test
     @Order(15)
     void testTurnOrder() {
         // Simulate X and O taking turns
-        game.board[0][0].doClick();
+        game.board.doClick(0, 0);
         assertEquals('O', game.currentPlayer); // Turn switched to O
-        game.board[0][1].doClick();
+        game.board.doClick(0, 1);
         assertEquals('X', game.currentPlayer); // Turn switched back to X
     }
     @Test
     @Order(8)
     void testResetBoard() {
         // Simulate some moves
-        game.board[0][0].doClick();
-        game.board[0][1].doClick();
-        game.board[0][2].doClick();
+        game.board.doClick(0, 0);
+        game.board.doClick(0, 1);
+        game.board.doClick(0, 2);
         // Reset the board
         game.resetBoard();
         // Assert the board is empty and game state is reset
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                assertEquals("", game.board[i][j].getText());
+                assertEquals("", game.board.getText(i, j));
             }
         }
         assertEquals('X', game.currentPlayer);
@@ -209,11 +209,11 @@ class GomokuGameTest {
     @Order(9)
     void testResetGame() {
         // Simulate some moves and wins
-        game.board[0][0].doClick();
-        game.board[0][1].doClick();
-        game.board[0][2].doClick();
-        game.board[0][3].doClick();
-        game.board[0][4].doClick();
+        game.board.doClick(0, 0);
+        game.board.doClick(0, 1);
+        game.board.doClick(0, 2);
+        game.board.doClick(0, 3);
+        game.board.doClick(0, 4);
         game.playerXWins = 3;
         // Reset the game
         game.resetGame();
@@ -229,7 +229,7 @@ class GomokuGameTest {
     @Order(16)
     void testTimer() throws InterruptedException {
         // Simulate a move to start the timer
-        game.board[0][0].doClick();
+        game.board.doClick(0, 0);
         // Wait for the timer to run out
         Thread.sleep(16000);
         // Assert the turn has switched
@@ -245,5 +245,35 @@ class GomokuGameTest {
         assertTrue(hint.x >= 0 && hint.x < 9);
         assertTrue(hint.y >= 0 && hint.y < 9);
     }
-}
 
+    @Test
+    @Order(12)
+    void testRedo() {
+        game.board.doClick(4, 4);
+        game.board.doClick(4, 5);
+        game.undoMove();
+        game.undoMove();
+        game.redoMove();
+        game.redoMove();
+        assertEquals("X", game.board.getText(4, 4));
+        assertEquals("O", game.board.getText(4, 5));
+        assertEquals('X', game.currentPlayer);
+        game.redoMove(); // 沒有可重做的棋
+        assertEquals(2, game.state.moveCount());
+    }
+
+    @Test
+    @Order(13)
+    void testUnsupportedWinLengthFallsBackToHeuristic() {
+        assertTrue(GomokuGame.evaluatorsFor(10).get() instanceof HeuristicEvaluator);
+        assertTrue(GomokuGame.evaluatorsFor(2).get() instanceof HeuristicEvaluator);
+        assertTrue(GomokuGame.evaluatorsFor(5).get() instanceof PatternEvaluator);
+        GameState state = new GameState(9, 2);
+        state.place(state.cell(4, 4));
+        try (ParallelSearch search = new ParallelSearch(2, new TranspositionTable(1 << 12),
+                GomokuGame.evaluatorsFor(2))) {
+            SearchResult result = search.search(state, 2, 1000);
+            assertTrue(state.isEmpty(result.bestMove));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        long p50 = histogram.percentile(0.50);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(Math.abs(p50 - 50_000) <= 50_000 / 16, "p50=" + p50);
+        assertTrue(Math.abs(p99 - 99_000) <= 99_000 / 16, "p99=" + p99);
+        assertEquals(100_000, histogram.percentile(1.0));
+        histogram.reset();
+        assertEquals(0, histogram.percentile(0.99));
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+        assertEquals(3, histogram.percentile(0.5));
+        assertEquals(7, histogram.percentile(0.99));
+    }
+}
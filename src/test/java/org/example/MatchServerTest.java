@@ -0,0 +1,104 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchServerTest {
+
+    @Test
+    void testSeriesIsPlayedThroughTheQueue() {
+        try (MatchServer server = new MatchServer(2, 9, 5, MatchServer.DEFAULT_TURN_MILLIS)) {
+            int id = server.createMatch();
+            MoveOutcome last = null;
+            for (int round = 0; round < Match.WINNING_GAMES; round++) {
+                // X plays row 0, O plays row 1; X completes five on its fifth move
+                for (int col = 0; col < 5; col++) {
+                    last = server.play(id, col).join();
+                    if (col < 4) {
+                        assertEquals(MoveOutcome.CONTINUE, server.play(id, 9 + col).join());
+                    }
+                }
+                if (round < Match.WINNING_GAMES - 1) {
+                    assertEquals(MoveOutcome.ROUND_WON, last);
+                }
+            }
+            assertEquals(MoveOutcome.SERIES_WON, last);
+            assertEquals(MoveOutcome.ILLEGAL, server.play(id, 40).join());
+            assertEquals(Match.WINNING_GAMES, server.query(id, Match::xWins).join());
+            assertEquals(Match.WINNING_GAMES * 9, server.movesPlayed());
+        }
+    }
+
+    @Test
+    void testConcurrentCommandsAreSerialisedPerMatch() {
+        long viewMoves = Metrics.global().moveLatency.count();
+        try (MatchServer server = new MatchServer(4, 9, 5, MatchServer.DEFAULT_TURN_MILLIS)) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                ids.add(server.createMatch());
+            }
+            List<CompletableFuture<MoveOutcome>> results = new ArrayList<>();
+            // Every match gets the same cell twice at once: exactly one attempt may succeed
+            for (int id : ids) {
+                results.add(server.play(id, 40));
+                results.add(server.play(id, 40));
+            }
+            long legal = results.stream().map(CompletableFuture::join).filter(o -> o != MoveOutcome.ILLEGAL).count();
+            assertEquals(ids.size(), legal);
+            assertEquals(2L * ids.size(), server.moveLatency().count());
+            assertTrue(server.report().contains("matches=200"));
+            // 伺服器的落子延遲另計，不混入視窗版的 move 直方圖
+            assertTrue(Metrics.global().serverMoveLatency.count() >= ids.size());
+            assertEquals(viewMoves, Metrics.global().moveLatency.count());
+        }
+    }
+
+    @Test
+    void testTurnClockPassesTheTurn() throws InterruptedException {
+        try (MatchServer server = new MatchServer(1, 9, 5, 50)) {
+            int id = server.createMatch();
+            server.play(id, 0).join();
+            Thread.sleep(300);
+            // At least one time-out fired; O has not moved, so the stone count is unchanged
+            assertEquals(1, server.query(id, m -> m.state().moveCount()).join());
+            assertTrue(server.undo(id).join());
+        }
+    }
+
+    @Test
+    void testCloseCancelsClocks() {
+        try (TurnClock clock = new TurnClock()) {
+            MatchServer server = new MatchServer(2, 9, 5, 60_000, clock);
+            int id = server.createMatch();
+            server.play(id, 40).join();
+            assertEquals(1, clock.activeTimeouts());
+            server.close();
+            assertEquals(0, clock.activeTimeouts());
+        }
+    }
+
+    @Test
+    void testFailedCommandsCompleteTheirFutures() {
+        MatchServer server = new MatchServer(1, 9, 5, MatchServer.DEFAULT_TURN_MILLIS);
+        int id = server.createMatch();
+        CompletableFuture<Integer> failing = server.query(id, m -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletionException thrown = assertThrows(CompletionException.class, failing::join);
+        assertEquals("boom", thrown.getCause().getMessage());
+        assertEquals(1, server.failedCommands());
+        // 同一對局之後的指令照常執行
+        assertEquals(MoveOutcome.CONTINUE, server.play(id, 40).join());
+        server.close();
+        CompletableFuture<MoveOutcome> late = server.play(id, 41);
+        assertTrue(late.isCompletedExceptionally());
+        thrown = assertThrows(CompletionException.class, late::join);
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsEngineTest {
+
+    @Test
+    void testBlocksOpenFour() {
+        GameState state = new GameState(9, 5);
+        // O 在第 4 列連四，X 只有零散的子
+        int[] o = {state.cell(4, 2), state.cell(4, 3), state.cell(4, 4), state.cell(4, 5)};
+        int[] x = {state.cell(0, 0), state.cell(8, 8), state.cell(0, 8), state.cell(8, 0)};
+        for (int i = 0; i < 4; i++) {
+            state.place(x[i], GameState.X);
+            state.place(o[i], GameState.O);
+        }
+        try (MctsEngine engine = new MctsEngine(1, MctsEngine.DEFAULT_EXPLORATION, 10_000, 7)) {
+            SearchResult result = engine.search(state, 2_000, 5_000);
+            assertTrue(result.bestMove == state.cell(4, 1) || result.bestMove == state.cell(4, 6),
+                    "move " + result.bestMove);
+            assertTrue(result.score < 0); // 擋了一邊仍會輸
+            assertEquals(2_000, result.nodes);
+        }
+    }
+
+    @Test
+    void testParallelSearchStaysWithinNodeLimit() {
+        GameState state = new GameState(15, 5);
+        state.place(state.cell(7, 7));
+        state.place(state.cell(7, 8));
+        state.place(state.cell(8, 7));
+        try (MctsEngine engine = new MctsEngine(2, MctsEngine.DEFAULT_EXPLORATION, 500, 3)) {
+            SearchResult result = engine.search(state, 5_000, 5_000);
+            assertTrue(state.isEmpty(result.bestMove));
+            assertTrue(engine.nodesUsed() <= 500);
+            assertEquals(5_000, result.nodes);
+            assertTrue(result.depth > 0);
+        }
+        MctsStrategy strategy = new MctsStrategy(200, 1_000);
+        int move = strategy.chooseMove(state);
+        assertTrue(state.isEmpty(move));
+        assertEquals(3, state.moveCount()); // 搜尋不改動呼叫端的棋盤
+    }
+
+    @Test
+    void testCancelBeforeStartIsKept() {
+        GameState state = new GameState(15, 5);
+        state.place(state.cell(7, 7));
+        try (MctsEngine engine = new MctsEngine(1, MctsEngine.DEFAULT_EXPLORATION, 10_000, 1)) {
+            long ticket = engine.nextSearch();
+            engine.cancel(ticket);
+            SearchResult result = engine.search(state, Long.MAX_VALUE, 60_000, ticket);
+            assertTrue(engine.wasCancelled());
+            assertEquals(0, result.nodes);
+            assertTrue(state.isEmpty(result.bestMove));
+            engine.search(state, 100, 60_000);
+            assertFalse(engine.wasCancelled());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    void testSearchReportsItsWork() {
+        Metrics metrics = Metrics.global();
+        long searches = metrics.getSearches();
+        long nodes = metrics.getSearchNodes();
+        long evaluations = metrics.getEvaluations();
+        long searchWinChecks = metrics.getSearchWinChecks();
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        SearchResult result = new SearchEngine().search(state, 3, 10_000);
+        // 其他測試可能同時累加，只檢查增量下限
+        assertTrue(metrics.getSearches() >= searches + 1);
+        assertTrue(metrics.getSearchNodes() >= nodes + result.nodes);
+        assertTrue(metrics.getEvaluations() > evaluations);
+        assertTrue(metrics.getSearchWinChecks() > searchWinChecks);
+        // 介面的檢查數要與它的延遲直方圖筆數一致，不含搜尋內的檢查
+        assertEquals(metrics.winCheckLatency.count(), metrics.getWinChecks());
+        String dump = metrics.dump();
+        assertTrue(dump.contains("search.nodes "), dump);
+        assertTrue(dump.contains("search count="), dump);
+    }
+
+    @Test
+    void testExposedThroughJmx() throws JMException {
+        Metrics.registerMBean();
+        Metrics.registerMBean(); // 重複註冊不出錯
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        long before = (Long) server.getAttribute(name, "Undos");
+        Metrics.global().undone();
+        assertEquals(before + 1, (Long) server.getAttribute(name, "Undos"));
+        String dump = (String) server.invoke(name, "dump", null, null);
+        assertTrue(dump.startsWith("moves "), dump);
+    }
+}
@@ -0,0 +1,114 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testCanonicalHashIsSymmetryInvariant() {
+        Random random = new Random(3);
+        GameState state = new GameState();
+        for (int i = 0; i < 12; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(state.cells());
+            } while (!state.isEmpty(cell));
+            state.place(cell);
+        }
+        long canonical = Symmetry.canonicalHash(state);
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            GameState image = transform(state, t);
+            assertEquals(canonical, Symmetry.canonicalHash(image), "transform " + t);
+            assertEquals(image.hash(), Symmetry.hash(state, t));
+            for (int cell = 0; cell < state.cells(); cell++) {
+                assertEquals(cell, Symmetry.apply(Symmetry.inverse(t), Symmetry.apply(t, cell, 9), 9));
+            }
+        }
+    }
+
+    @Test
+    void testLookupFollowsSymmetricPositions() throws IOException {
+        OpeningBook.Builder builder = new OpeningBook.Builder(9, 5, 4, 1);
+        GameState won = new GameState();
+        for (int cell : new int[]{40, 41, 31, 50, 22}) {
+            won.place(cell);
+        }
+        builder.add(won, GameState.X);
+        GameState lost = new GameState();
+        for (int cell : new int[]{40, 30, 31, 22}) {
+            lost.place(cell);
+        }
+        builder.add(lost, GameState.O);
+        Path file = dir.resolve("test.book");
+        assertEquals(6, builder.write(file));
+
+        OpeningBook book = OpeningBook.load(file);
+        assertEquals(6, book.entries());
+        GameState start = new GameState();
+        assertEquals(40, book.lookup(start));
+        GameState position = new GameState();
+        position.place(40);
+        position.place(41);
+        // 局面本身上下對稱，31 與 49 等價；旋轉後的同一局面，棋步也跟著旋轉
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            GameState image = transform(position, t);
+            assertEquivalent(image, Symmetry.apply(t, 31, 9), book.lookup(image));
+        }
+        // 白方第一手：下 30 的那盤白方贏了，比 41 好
+        position.undo();
+        assertEquals(30, book.lookup(position));
+        position.place(41);
+        position.place(31);
+        position.place(50);
+        assertEquals(-1, book.lookup(position), "beyond the book's plies");
+        assertNull(OpeningBook.loadIfPresent(dir.resolve("missing.book")));
+    }
+
+    @Test
+    void testOldVersionIsRejected() throws IOException {
+        OpeningBook.Builder builder = new OpeningBook.Builder(9, 5, 2, 1);
+        GameState game = new GameState();
+        game.place(40);
+        game.place(41);
+        builder.add(game, GameState.X);
+        Path file = dir.resolve("old.book");
+        builder.write(file);
+        // 舊版書的鍵值算法不同，讀進來也永遠查不到，必須直接拒絕
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, 1);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> OpeningBook.load(file));
+        assertNull(OpeningBook.loadIfPresent(file));
+    }
+
+    private static void assertEquivalent(GameState position, int expected, int actual) {
+        assertTrue(actual >= 0, "not in book");
+        GameState a = position.copy();
+        a.place(expected);
+        GameState b = position.copy();
+        b.place(actual);
+        assertEquals(Symmetry.canonicalHash(a), Symmetry.canonicalHash(b), expected + " vs " + actual);
+    }
+
+    private static GameState transform(GameState state, int t) {
+        GameState image = new GameState(state.size(), state.winLength());
+        for (int i = 0; i < state.moveCount(); i++) {
+            int cell = state.moveAt(i);
+            image.place(Symmetry.apply(t, cell, state.size()), state.get(cell));
+        }
+        image.setToMove(state.toMove());
+        return image;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSearchTest {
+
+    @Test
+    void testFindsWinWithSeveralWorkers() {
+        GameState state = new GameState();
+        for (int row = 1; row < 5; row++) {
+            state.place(state.cell(row, 6), GameState.O);
+            state.place(state.cell(row, 0), GameState.X);
+        }
+        state.setToMove(GameState.O);
+        try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(1 << 14), PatternEvaluator::new)) {
+            SearchResult result = search.search(state, 4, 5000);
+            assertTrue(result.bestMove == state.cell(0, 6) || result.bestMove == state.cell(5, 6));
+            assertTrue(result.isWin());
+            assertEquals(4, search.threads());
+        }
+    }
+
+    @Test
+    void testCancelBeforeStartIsKept() {
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        try (ParallelSearch search = new ParallelSearch(2, new TranspositionTable(1 << 14), PatternEvaluator::new)) {
+            long ticket = search.nextSearch();
+            search.cancel(ticket); // 搜尋還在排隊時就取消
+            long start = System.nanoTime();
+            search.search(state, 60, 60_000, null, ticket);
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+            assertTrue(search.wasCancelled());
+            // 之後的搜尋不受影響
+            SearchResult result = search.search(state, 2, 5_000);
+            assertFalse(search.wasCancelled());
+            assertEquals(2, result.depth);
+        }
+    }
+
+    @Test
+    void testCancelStopsSearch() throws InterruptedException {
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        try (ParallelSearch search = new ParallelSearch(2, new TranspositionTable(1 << 14), PatternEvaluator::new)) {
+            Thread canceller = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                search.cancel();
+            });
+            canceller.start();
+            long start = System.nanoTime();
+            SearchResult result = search.search(state, 60, 60_000);
+            canceller.join();
+            // Cancelled long before the 60 second budget, still with a legal move
+            assertTrue(System.nanoTime() - start < 10_000_000_000L);
+            assertTrue(state.isEmpty(result.bestMove));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternEvaluatorTest {
+
+    @Test
+    void testPatternTable() {
+        assertEquals(PatternEvaluator.FIVE, PatternEvaluator.pattern(0b011111, 0));
+        assertEquals(PatternEvaluator.OPEN_FOUR, PatternEvaluator.pattern(0b011110, 0));
+        assertEquals(PatternEvaluator.FOUR, PatternEvaluator.pattern(0b011110, 0b100000));
+        assertEquals(PatternEvaluator.FOUR, PatternEvaluator.pattern(0b011011, 0));
+        assertEquals(PatternEvaluator.OPEN_THREE, PatternEvaluator.pattern(0b001110, 0));
+        assertEquals(PatternEvaluator.SPLIT_THREE, PatternEvaluator.pattern(0b010110, 0));
+        assertEquals(PatternEvaluator.THREE, PatternEvaluator.pattern(0b001110, 0b000001));
+        assertEquals(PatternEvaluator.NONE, PatternEvaluator.pattern(0b001110, 0b100001 | 0b010000));
+    }
+
+    @Test
+    void testOpenFourBeatsBlockedFour() {
+        GameState open = new GameState();
+        GameState blocked = new GameState();
+        for (int col = 2; col < 6; col++) {
+            open.place(open.cell(4, col), GameState.X);
+            blocked.place(blocked.cell(4, col), GameState.X);
+        }
+        blocked.place(blocked.cell(4, 1), GameState.O);
+        open.place(open.cell(0, 8), GameState.O);
+        PatternEvaluator evaluator = new PatternEvaluator();
+        evaluator.reset(open);
+        int openScore = evaluator.evaluate(open, GameState.X);
+        evaluator.reset(blocked);
+        int blockedScore = evaluator.evaluate(blocked, GameState.X);
+        assertTrue(openScore > blockedScore);
+        assertEquals(-blockedScore, evaluator.evaluate(blocked, GameState.O));
+    }
+
+    @Test
+    void testIncrementalMatchesFullRecompute() {
+        checkIncremental(new GameState());
+        checkIncremental(new GameState(15, 6));
+    }
+
+    private static void checkIncremental(GameState state) {
+        Random random = new Random(7);
+        PatternEvaluator incremental = new PatternEvaluator();
+        PatternEvaluator reference = new PatternEvaluator();
+        incremental.reset(state);
+        for (int step = 0; step < 400; step++) {
+            if (state.moveCount() > 0 && (state.isFull() || random.nextInt(3) == 0)) {
+                incremental.onUndo(state, state.lastMove());
+                state.undo();
+            } else {
+                int cell;
+                do {
+                    cell = random.nextInt(state.cells());
+                } while (!state.isEmpty(cell));
+                state.place(cell);
+                incremental.onPlace(state, cell);
+            }
+            reference.reset(state);
+            assertEquals(reference.evaluate(state, GameState.X), incremental.evaluate(state, GameState.X));
+        }
+    }
+
+    @Test
+    void testOtherWinLengths() {
+        assertEquals(PatternEvaluator.FIVE, PatternEvaluator.pattern(6, 0b0111111, 0));
+        assertEquals(PatternEvaluator.OPEN_FOUR, PatternEvaluator.pattern(6, 0b0111110, 0));
+        assertEquals(PatternEvaluator.OPEN_FOUR, PatternEvaluator.pattern(4, 0b01110, 0));
+        assertThrows(IllegalArgumentException.class, () -> PatternEvaluator.pattern(12, 0, 0));
+    }
+}
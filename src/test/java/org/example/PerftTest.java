@@ -0,0 +1,58 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    @Test
+    void testTicTacToeIsFullyEnumerated() {
+        // 井字棋的已知結果：255168 盤，209088 盤分出勝負，46080 盤和局
+        try (Perft perft = new Perft(4)) {
+            Perft.Result result = perft.run(new GameState(3, 3), 9, true);
+            assertArrayEquals(new long[]{0, 0, 0, 0, 1440, 5328, 47952, 72576, 81792}, result.wins);
+            assertEquals(46080, result.draws[8]);
+            assertEquals(9 * 8 * 7 * 6 * 5, result.nodes[4]);
+            assertEquals(0, result.mismatches, result.firstMismatch);
+        }
+    }
+
+    @Test
+    void testRejectsNonPositiveDepth() {
+        try (Perft perft = new Perft(1)) {
+            assertThrows(IllegalArgumentException.class, () -> perft.run(new GameState(3, 3), 0, false));
+        }
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        GameState root = new GameState(6, 4);
+        root.place(root.cell(2, 2));
+        root.place(root.cell(3, 3));
+        Perft.Result parallel;
+        Perft.Result sequential;
+        try (Perft perft = new Perft(4)) {
+            parallel = perft.run(root, 4, true);
+        }
+        try (Perft perft = new Perft(1)) {
+            sequential = perft.run(root, 4, false);
+        }
+        assertArrayEquals(sequential.nodes, parallel.nodes);
+        assertArrayEquals(sequential.wins, parallel.wins);
+        assertEquals(34L * 33 * 32 * 31, parallel.nodes[3]);
+        assertEquals(0, parallel.mismatches, parallel.firstMismatch);
+        assertEquals(2, root.moveCount());
+    }
+
+    @Test
+    void testReferenceFindsEdgeDiagonals() {
+        GameState state = new GameState(5, 3);
+        state.place(state.cell(2, 0), GameState.O);
+        state.place(state.cell(3, 1), GameState.O);
+        assertFalse(Perft.referenceWin(state, GameState.O));
+        state.place(state.cell(4, 2), GameState.O);
+        assertTrue(Perft.referenceWin(state, GameState.O));
+        assertNotEquals(WinLine.NONE, state.winningLine(state.cell(4, 2)));
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchEngineTest {
+
+    @Test
+    void testFindsImmediateWin() {
+        GameState state = new GameState();
+        for (int col = 0; col < 4; col++) {
+            state.place(state.cell(4, col), GameState.X);
+            state.place(state.cell(0, col * 2), GameState.O);
+        }
+        SearchResult result = new SearchEngine().search(state, 4, 5000);
+        assertEquals(state.cell(4, 4), result.bestMove);
+        assertTrue(result.isWin());
+        // The position handed in is left untouched
+        assertEquals(8, state.moveCount());
+    }
+
+    @Test
+    void testBlocksFour() {
+        GameState state = new GameState();
+        for (int row = 2; row < 6; row++) {
+            state.place(state.cell(row, 3), GameState.O);
+        }
+        state.place(state.cell(1, 3), GameState.X);
+        state.place(state.cell(8, 8), GameState.X);
+        state.setToMove(GameState.X);
+        SearchResult result = new SearchEngine().search(state, 2, 5000);
+        assertEquals(state.cell(6, 3), result.bestMove);
+    }
+
+    @Test
+    void testHistoryDoesNotLeakIntoTheNextSearch() {
+        GameState first = new GameState();
+        first.place(first.cell(4, 4));
+        first.place(first.cell(3, 5));
+        GameState second = new GameState();
+        second.place(second.cell(2, 2));
+        second.place(second.cell(6, 6));
+        SearchEngine reused = new SearchEngine();
+        reused.search(first, 4, 60_000);
+        reused.table().clear();
+        SearchResult again = reused.search(second, 4, 60_000);
+        SearchResult fresh = new SearchEngine().search(second, 4, 60_000);
+        // 清掉上一次留下的 history 後，走法順序與全新的引擎相同
+        assertEquals(fresh.nodes, again.nodes);
+        assertEquals(fresh.bestMove, again.bestMove);
+    }
+
+    @Test
+    void testRespectsTimeBudget() {
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        SearchResult result = new SearchEngine().search(state, 40, 200);
+        assertTrue(result.elapsedNanos < 2_000_000_000L);
+        assertTrue(result.depth >= 1);
+        assertTrue(result.nodes > 0);
+        assertTrue(state.isEmpty(result.bestMove));
+    }
+
+    @Test
+    void testReportsEachCompletedDepth() {
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        state.place(state.cell(3, 3));
+        List<SearchResult> progress = new ArrayList<>();
+        SearchResult result = new SearchEngine().search(state, 3, 10_000, progress::add);
+        assertEquals(3, progress.size());
+        for (int i = 0; i < progress.size(); i++) {
+            assertEquals(i + 1, progress.get(i).depth);
+        }
+        assertEquals(result.bestMove, progress.get(2).bestMove);
+    }
+
+    @Test
+    void testVeryLargeBoardOnlySearchesNearStones() {
+        GameState state = new GameState(501, 5);
+        state.place(state.cell(250, 250), GameState.X);
+        state.place(state.cell(251, 251), GameState.O);
+        state.place(state.cell(250, 251), GameState.X);
+        SearchResult result = new SearchEngine().search(state, 3, 10_000);
+        assertEquals(3, result.depth);
+        assertTrue(Math.abs(state.row(result.bestMove) - 250) <= 2);
+        assertTrue(Math.abs(state.col(result.bestMove) - 250) <= 3);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreatSolverTest {
+
+    @Test
+    void testFindsWinByContinuousFours() {
+        // 第 5、7 行各能衝四，第 6 列與斜線上也有三子，連續衝四可成雙四或活四
+        GameState state = new GameState(15, 5);
+        int[][] x = {{5, 3}, {5, 4}, {5, 5}, {3, 6}, {4, 6}, {7, 3}, {7, 4}, {7, 5}};
+        int[][] o = {{5, 2}, {2, 6}, {7, 2}, {12, 12}, {12, 10}, {10, 12}, {14, 14}};
+        for (int[] cell : x) {
+            state.place(state.cell(cell[0], cell[1]), GameState.X);
+        }
+        for (int[] cell : o) {
+            state.place(state.cell(cell[0], cell[1]), GameState.O);
+        }
+        state.setToMove(GameState.X);
+        ThreatSolver solver = new ThreatSolver();
+        SearchResult result = solver.solveVcf(state);
+        assertNotNull(result);
+        assertTrue(result.isWin());
+        assertTrue(PatternEvaluator.threat(state, result.bestMove, GameState.X) >= PatternEvaluator.FOUR);
+        assertTrue(solver.nodes() < 1000, "nodes=" + solver.nodes());
+        // 輪到 O 時 X 的威脅不算數
+        state.setToMove(GameState.O);
+        assertNull(solver.solveVcf(state));
+    }
+
+    @Test
+    void testFindsWinThroughOpenThrees() {
+        GameState state = new GameState();
+        // 兩個活二交叉：一般的四連殺不夠，需要先做活三
+        state.place(state.cell(4, 3), GameState.X);
+        state.place(state.cell(4, 4), GameState.X);
+        state.place(state.cell(5, 2), GameState.X);
+        state.place(state.cell(6, 2), GameState.X);
+        state.place(state.cell(0, 0), GameState.O);
+        state.place(state.cell(0, 8), GameState.O);
+        state.place(state.cell(8, 0), GameState.O);
+        state.place(state.cell(8, 8), GameState.O);
+        ThreatSolver solver = new ThreatSolver();
+        assertNull(solver.solveVcf(state));
+        SearchResult result = solver.solve(state, 2);
+        assertNotNull(result);
+        assertTrue(state.isEmpty(result.bestMove));
+        // 勝著必須先做出活三
+        assertTrue(PatternEvaluator.threat(state, result.bestMove, GameState.X) >= PatternEvaluator.SPLIT_THREE);
+    }
+
+    @Test
+    void testDoesNotClaimWinAgainstOpponentFour() {
+        GameState state = new GameState();
+        for (int col = 1; col < 4; col++) {
+            state.place(state.cell(4, col), GameState.X);
+        }
+        for (int row = 0; row < 4; row++) {
+            state.place(state.cell(row, 7), GameState.O);
+        }
+        state.setToMove(GameState.X);
+        // X 的活三不如 O 的四快，必須先擋 (4,7) 而那一步沒有威脅
+        assertNull(new ThreatSolver().findWin(state));
+    }
+}
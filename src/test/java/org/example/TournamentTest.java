@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    @Test
+    void testStrongerStrategyWins() {
+        Tournament tournament = new Tournament(9, 5, 2, 7, 4);
+        AtomicInteger reports = new AtomicInteger();
+        List<Tournament.Pairing> pairings = tournament.roundRobin(List.of(
+                new Tournament.Entrant("random", () -> new RandomStrategy(1)),
+                new Tournament.Entrant("search", () -> new SearchStrategy(2, 1000))),
+                40, 10, pairing -> reports.incrementAndGet());
+        Tournament.Pairing pairing = pairings.get(0);
+        assertEquals(40, pairing.games());
+        assertEquals(0, pairing.forfeits());
+        assertTrue(pairing.secondWins() >= 36, pairing.toString());
+        assertTrue(pairing.elo() < -200, pairing.toString());
+        assertEquals(4, reports.get()); // 每 10 局恰好一次
+    }
+
+    @Test
+    void testStrategiesAreClosedAfterwards() {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        Tournament tournament = new Tournament(9, 5, 2, 5, 3);
+        tournament.roundRobin(List.of(
+                new Tournament.Entrant("random", () -> new RandomStrategy(1)),
+                new Tournament.Entrant("greedy", () -> {
+                    created.incrementAndGet();
+                    return new MoveStrategy() {
+                        private final GreedyStrategy greedy = new GreedyStrategy();
+
+                        @Override
+                        public String name() {
+                            return greedy.name();
+                        }
+
+                        @Override
+                        public int chooseMove(GameState state) {
+                            return greedy.chooseMove(state);
+                        }
+
+                        @Override
+                        public void close() {
+                            closed.incrementAndGet();
+                        }
+                    };
+                })), 12, 0, p -> { });
+        assertTrue(created.get() >= 1);
+        assertEquals(created.get(), closed.get());
+    }
+
+    @Test
+    void testIllegalMoveForfeits() {
+        MoveStrategy cheater = new MoveStrategy() {
+            @Override
+            public String name() {
+                return "cheater";
+            }
+
+            @Override
+            public int chooseMove(GameState state) {
+                return state.lastMove() < 0 ? 0 : state.lastMove(); // 下在已有棋子的格子
+            }
+        };
+        Tournament tournament = new Tournament(9, 5, 1, 3, 2);
+        Tournament.Pairing pairing = tournament.roundRobin(List.of(
+                new Tournament.Entrant("cheater", () -> cheater),
+                new Tournament.Entrant("greedy", GreedyStrategy::new)), 10, 0, p -> { }).get(0);
+        assertEquals(10, pairing.forfeits());
+        assertEquals(10, pairing.secondWins());
+    }
+
+    @Test
+    void testEloFromScore() {
+        assertEquals(0, Tournament.elo(0.5), 1e-9);
+        assertEquals(-Tournament.elo(0.25), Tournament.elo(0.75), 1e-9);
+        assertEquals(191, Tournament.elo(0.75), 1);
+    }
+}
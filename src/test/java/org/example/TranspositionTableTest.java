@@ -0,0 +1,79 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1000);
+        assertEquals(512, table.capacity());
+        table.store(42L, 5, -1234, TranspositionTable.LOWER, 80);
+        long entry = table.probe(42L);
+        assertNotEquals(TranspositionTable.MISS, entry);
+        assertEquals(-1234, TranspositionTable.score(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(80, TranspositionTable.move(entry));
+        assertEquals(1, table.hits());
+    }
+
+    @Test
+    void testLastCellOfLargestBoard() {
+        GameState state = new GameState(GameState.MAX_SIZE, 5);
+        int last = state.cells() - 1;
+        assertThrows(IllegalArgumentException.class, () -> new GameState(GameState.MAX_SIZE + 1, 5));
+        TranspositionTable table = new TranspositionTable(16);
+        table.store(7L, 63, 99, TranspositionTable.UPPER, last);
+        long entry = table.probe(7L);
+        assertEquals(last, TranspositionTable.move(entry));
+        assertEquals(63, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(entry));
+        assertEquals(99, TranspositionTable.score(entry));
+    }
+
+    @Test
+    void testDepthPreferredReplacement() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.store(1L, 6, 10, TranspositionTable.EXACT, 3);
+        // Key 17 maps to the same slot; a shallower entry must not evict the deeper one
+        table.store(17L, 2, 20, TranspositionTable.EXACT, 4);
+        assertEquals(TranspositionTable.MISS, table.probe(17L));
+        assertEquals(1, table.collisions());
+        assertEquals(10, TranspositionTable.score(table.probe(1L)));
+        // Entries from an older search are always replaceable
+        table.newSearch();
+        table.store(17L, 2, 20, TranspositionTable.EXACT, 4);
+        assertEquals(20, TranspositionTable.score(table.probe(17L)));
+    }
+
+    @Test
+    void testCountersDoNotLoseConcurrentUpdates() {
+        TranspositionTable table = new TranspositionTable(1 << 10);
+        table.store(42, 3, 7, TranspositionTable.EXACT, 5);
+        IntStream.range(0, 8).parallel().forEach(t -> {
+            for (int i = 0; i < 10_000; i++) {
+                table.probe(42);
+            }
+        });
+        assertEquals(80_000, table.hits());
+        assertEquals(1, table.stores());
+    }
+
+    @Test
+    void testSearchUsesTable() {
+        TranspositionTable table = new TranspositionTable(1 << 12);
+        SearchEngine engine = new SearchEngine(new HeuristicEvaluator(), table);
+        GameState state = new GameState();
+        state.place(state.cell(4, 4));
+        state.place(state.cell(4, 5));
+        engine.search(state, 3, 5000);
+        assertTrue(table.stores() > 0);
+        assertTrue(table.hits() > 0);
+        assertEquals(64L * 1024, TranspositionTable.ofMegabytes(1).capacity());
+    }
+}
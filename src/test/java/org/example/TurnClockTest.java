@@ -0,0 +1,96 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TurnClockTest {
+
+    @Test
+    void testTimeoutsFireInDeadlineOrder() throws InterruptedException {
+        try (TurnClock clock = new TurnClock(1, 64)) {
+            CountDownLatch done = new CountDownLatch(3);
+            StringBuffer order = new StringBuffer();
+            // 200ms 超過一圈 64 格，需靠 rounds 計數
+            clock.schedule(() -> { order.append('c'); done.countDown(); }, 200);
+            clock.schedule(() -> { order.append('a'); done.countDown(); }, 10);
+            clock.schedule(() -> { order.append('b'); done.countDown(); }, 50);
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            assertEquals("abc", order.toString());
+            assertEquals(0, clock.activeTimeouts());
+            assertEquals(3, clock.drift().count());
+        }
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopTheWheel() throws InterruptedException {
+        try (TurnClock clock = new TurnClock()) {
+            CountDownLatch done = new CountDownLatch(1);
+            clock.schedule(() -> {
+                throw new IllegalStateException("boom");
+            }, 5);
+            clock.schedule(done::countDown, 20);
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            assertEquals(1, clock.failedCallbacks());
+        }
+    }
+
+    @Test
+    void testCancelledTimeoutNeverRuns() throws InterruptedException {
+        try (TurnClock clock = new TurnClock()) {
+            AtomicInteger fired = new AtomicInteger();
+            TurnClock.Timeout[] timeouts = new TurnClock.Timeout[100_000];
+            for (int i = 0; i < timeouts.length; i++) {
+                timeouts[i] = clock.schedule(fired::incrementAndGet, 500 + i % 50);
+            }
+            for (int i = 0; i < timeouts.length; i += 2) {
+                assertTrue(timeouts[i].cancel());
+            }
+            assertFalse(timeouts[0].cancel());
+            CountDownLatch last = new CountDownLatch(1);
+            clock.schedule(last::countDown, 800);
+            assertTrue(last.await(2, TimeUnit.SECONDS));
+            assertEquals(timeouts.length / 2, fired.get());
+            assertTrue(timeouts[0].isCancelled());
+            assertTrue(timeouts[1].isExpired());
+        }
+    }
+
+    @Test
+    void testCountdownPauseResumeAndExpire() throws InterruptedException {
+        try (TurnClock clock = new TurnClock()) {
+            CountDownLatch expired = new CountDownLatch(1);
+            AtomicInteger ticks = new AtomicInteger();
+            Countdown countdown = clock.countdown(2, new Countdown.Listener() {
+                @Override
+                public void onTick(int secondsLeft) {
+                    ticks.incrementAndGet();
+                }
+
+                @Override
+                public void onExpired() {
+                    expired.countDown();
+                }
+            });
+            countdown.start();
+            countdown.pause();
+            assertTrue(countdown.isPaused());
+            Thread.sleep(300);
+            assertEquals(0, ticks.get());
+            assertEquals(2, countdown.remainingSeconds());
+            countdown.resume();
+            assertTrue(expired.await(4, TimeUnit.SECONDS));
+            assertEquals(2, ticks.get());
+            assertTrue(countdown.isExpired());
+            countdown.reset();
+            assertTrue(countdown.isRunning());
+            assertEquals(2, countdown.remainingSeconds());
+            countdown.cancel();
+            assertFalse(countdown.isRunning());
+        }
+    }
+}